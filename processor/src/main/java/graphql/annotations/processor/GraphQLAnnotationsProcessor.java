@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Generates, for every class declaring {@link graphql.annotations.GraphQLField} members, a
+ * <code>&lt;Class&gt;_GraphQLObject</code> class in the same package. Its <code>objectBuilder()</code>
+ * builds the same object type as <code>GraphQLAnnotations.objectBuilder</code>, but with data fetchers
+ * that call the annotated members directly. <code>GraphQLAnnotations</code> picks generated builders
+ * up automatically.
+ *
+ * Classes that use features the processor doesn't translate (relay mutations, custom type functions,
+ * private members, etc.) are reported with a note and left to runtime reflection.
+ */
+@SupportedAnnotationTypes("graphql.annotations.GraphQLField")
+public class GraphQLAnnotationsProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+                if (enclosing.getKind() == ElementKind.CLASS) {
+                    types.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            ObjectTypeGenerator generator = new ObjectTypeGenerator(processingEnv, type);
+            try {
+                String source = generator.generate();
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(generator.getGeneratedName(), type);
+                try (Writer writer = file.openWriter()) {
+                    writer.write(source);
+                }
+            } catch (UnsupportedElementException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        type + " will be processed at runtime: " + e.getMessage(), e.getElement());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Can't generate " + generator.getGeneratedName() + ": " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+}
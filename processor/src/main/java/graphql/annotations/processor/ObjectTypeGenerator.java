@@ -0,0 +1,689 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.*;
+
+/**
+ * Generates source of a <code>&lt;Class&gt;_GraphQLObject</code> class for a single annotated class
+ */
+class ObjectTypeGenerator {
+
+    static final String SUFFIX = "_GraphQLObject";
+
+    private static final String ANNOTATIONS = "graphql.annotations.";
+    private static final String NOT_NULL = "javax.validation.constraints.NotNull";
+    private static final String DEPRECATED = "java.lang.Deprecated";
+    private static final String ENVIRONMENT = "graphql.schema.DataFetchingEnvironment";
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement type;
+    private final String packageName;
+    private final String simpleName;
+
+    private final StringBuilder fieldMethods = new StringBuilder();
+    private final StringBuilder fetcherClasses = new StringBuilder();
+    private int fieldCount;
+
+    ObjectTypeGenerator(ProcessingEnvironment processingEnv, TypeElement type) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.type = type;
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String flatName = type.getSimpleName().toString();
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            flatName = e.getSimpleName() + "_" + flatName;
+        }
+        this.simpleName = flatName + SUFFIX;
+    }
+
+    String getGeneratedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    String generate() throws UnsupportedElementException {
+        checkAccessible(type, type);
+        String typeName = typeName(type.asType());
+
+        List<String> fields = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC) && isGraphQLField(method)) {
+                fields.add(methodField(method, typeName));
+            }
+        }
+        for (VariableElement field : allFields().values()) {
+            if (!field.getModifiers().contains(Modifier.STATIC) && annotation(field, ANNOTATIONS + "GraphQLField") != null) {
+                fields.add(fieldField(field, typeName));
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n");
+        source.append(" * Generated by {@link graphql.annotations.processor.GraphQLAnnotationsProcessor} from {@link ").append(typeName).append("}\n");
+        source.append(" */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(simpleName).append(" {\n\n");
+        source.append("    private ").append(simpleName).append("() {\n    }\n\n");
+        source.append("    public static graphql.schema.GraphQLObjectType.Builder objectBuilder() throws IllegalAccessException, InstantiationException {\n");
+        source.append("        graphql.schema.GraphQLObjectType.Builder builder = graphql.schema.GraphQLObjectType.newObject();\n");
+        source.append("        builder.name(").append(literal(graphQLName(type))).append(");\n");
+        String description = stringValue(annotation(type, ANNOTATIONS + "GraphQLDescription"), "value");
+        if (description != null) {
+            source.append("        builder.description(").append(literal(description)).append(");\n");
+        }
+        for (String field : fields) {
+            source.append("        builder.field(").append(field).append("());\n");
+        }
+        for (TypeMirror iface : type.getInterfaces()) {
+            Element ifaceElement = types.asElement(iface);
+            if (isInterface((TypeElement) ifaceElement)) {
+                checkAccessible(ifaceElement, ifaceElement);
+                source.append("        builder.withInterface((graphql.schema.GraphQLInterfaceType) graphql.annotations.GraphQLAnnotations.iface(")
+                      .append(typeName(iface)).append(".class));\n");
+            }
+        }
+        source.append("        return builder;\n");
+        source.append("    }\n\n");
+        source.append("    private static graphql.schema.GraphQLInputType inputType(graphql.schema.GraphQLType type) {\n");
+        source.append("        return type instanceof graphql.schema.GraphQLObjectType ?\n");
+        source.append("                graphql.annotations.GraphQLAnnotations.inputObject((graphql.schema.GraphQLObjectType) type) : (graphql.schema.GraphQLInputType) type;\n");
+        source.append("    }\n");
+        source.append(fieldMethods);
+        source.append(fetcherClasses);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Mirrors <code>GraphQLAnnotations.getAllFields</code>: declared fields of the class and its
+     * superclasses, with subclasses' fields hiding superclasses' ones
+     */
+    private Map<String, VariableElement> allFields() {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement t = type; t != null; ) {
+            hierarchy.add(0, t);
+            TypeMirror superclass = t.getSuperclass();
+            t = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement t : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                fields.put(field.getSimpleName().toString(), field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Mirrors <code>GraphQLAnnotations.isInterface</code>: an interface is declared by objects if it has
+     * <code>@GraphQLTypeResolver</code> or, unless it is a union, fields of its own
+     */
+    private boolean isInterface(TypeElement iface) {
+        if (annotation(iface, ANNOTATIONS + "GraphQLTypeResolver") != null) {
+            return true;
+        }
+        if (annotation(iface, ANNOTATIONS + "GraphQLUnion") != null) {
+            return false;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(iface))) {
+            if (!method.getModifiers().contains(Modifier.STATIC) && annotation(method, ANNOTATIONS + "GraphQLField") != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A method is a field if it, or any method it overrides, is annotated with <code>@GraphQLField</code>
+     */
+    private boolean isGraphQLField(ExecutableElement method) {
+        if (annotation(method, ANNOTATIONS + "GraphQLField") != null) {
+            return true;
+        }
+        Deque<TypeMirror> supertypes = new ArrayDeque<>(types.directSupertypes(type.asType()));
+        while (!supertypes.isEmpty()) {
+            TypeMirror supertype = supertypes.pop();
+            TypeElement element = (TypeElement) types.asElement(supertype);
+            for (ExecutableElement candidate : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                if (annotation(candidate, ANNOTATIONS + "GraphQLField") != null &&
+                    (candidate.equals(method) || elements.overrides(method, candidate, type))) {
+                    return true;
+                }
+            }
+            supertypes.addAll(types.directSupertypes(supertype));
+        }
+        return false;
+    }
+
+    private String methodField(ExecutableElement method, String typeName) throws UnsupportedElementException {
+        if (annotation(method, ANNOTATIONS + "GraphQLRelayMutation") != null) {
+            throw new UnsupportedElementException(method, "relay mutations are not supported");
+        }
+        if (annotation(method, ANNOTATIONS + "GraphQLType") != null) {
+            throw new UnsupportedElementException(method, "custom type functions are not supported");
+        }
+        if (annotation(method, ANNOTATIONS + "GraphQLBlocking") != null ||
+            annotation(method.getEnclosingElement(), ANNOTATIONS + "GraphQLBlocking") != null) {
+            throw new UnsupportedElementException(method, "blocking methods are not supported");
+        }
+        if (annotation(method, ANNOTATIONS + "GraphQLMemoized") != null) {
+            throw new UnsupportedElementException(method, "memoized methods are not supported");
+        }
+        checkAccessibleMember(method);
+        int index = fieldCount++;
+        String fieldName = method.getSimpleName().toString().replaceFirst("^(is|get|set)(.+)", "$2");
+        fieldName = Character.toLowerCase(fieldName.charAt(0)) + fieldName.substring(1);
+        AnnotationMirror name = annotation(method, ANNOTATIONS + "GraphQLName");
+        if (name != null) {
+            fieldName = stringValue(name, "value");
+        }
+
+        boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+        boolean batched = annotation(method, ANNOTATIONS + "GraphQLBatched") != null;
+        boolean detached = !isStatic && annotation(method, ANNOTATIONS + "GraphQLInvokeDetached") != null;
+
+        TypeMirror returnType = method.getReturnType();
+        if (batched) {
+            if (!isStatic) {
+                throw new UnsupportedElementException(method, "batched method should be static");
+            }
+            if (!isList(returnType)) {
+                throw new UnsupportedElementException(method, "batched method should return a List");
+            }
+            returnType = typeArgument(returnType, method);
+        }
+
+        StringBuilder arguments = new StringBuilder();
+        List<String> invocationArgs = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror parameterType = parameter.asType();
+            if (types.isAssignable(parameterType, elements.getTypeElement(ENVIRONMENT).asType())) {
+                invocationArgs.add("environment");
+                continue;
+            }
+            if (parameterType.getKind() == TypeKind.DECLARED && erasedName(parameterType).equals(ANNOTATIONS + "PageRequest")) {
+                throw new UnsupportedElementException(parameter, "page requests are not supported");
+            }
+            if (parameterType.getKind() == TypeKind.DECLARED && erasedName(parameterType).equals(ANNOTATIONS + "DataLoader")) {
+                throw new UnsupportedElementException(parameter, "data loaders are not supported");
+            }
+            AnnotationMirror parameterName = annotation(parameter, ANNOTATIONS + "GraphQLName");
+            String argumentName = parameterName == null ? parameter.getSimpleName().toString() : stringValue(parameterName, "value");
+
+            String inputType = "inputType(" + typeExpression(parameterType, parameter) + ")";
+            if (annotation(parameter, NOT_NULL) != null) {
+                inputType = "new graphql.schema.GraphQLNonNull(" + inputType + ")";
+            }
+            arguments.append("        builder.argument(graphql.schema.GraphQLArgument.newArgument()\n");
+            arguments.append("                .name(").append(literal(argumentName)).append(")\n");
+            arguments.append("                .type(").append(inputType).append(")\n");
+            String description = stringValue(annotation(parameter, ANNOTATIONS + "GraphQLDescription"), "value");
+            if (description != null) {
+                arguments.append("                .description(").append(literal(description)).append(")\n");
+            }
+            AnnotationMirror defaultValue = annotation(parameter, ANNOTATIONS + "GraphQLDefaultValue");
+            if (defaultValue != null) {
+                TypeMirror supplier = classValue(defaultValue);
+                checkAccessible(types.asElement(supplier), parameter);
+                arguments.append("                .defaultValue(new ").append(typeName(supplier)).append("().get())\n");
+            }
+            arguments.append("                .build());\n");
+
+            String value = "environment.getArgument(" + literal(argumentName) + ")";
+            String inputConstructor = hashMapConstructor(parameterType);
+            if (inputConstructor != null) {
+                invocationArgs.add("new " + inputConstructor + "((java.util.HashMap) " + value + ")");
+            } else {
+                invocationArgs.add("(" + erasedName(parameterType) + ") " + value);
+            }
+        }
+
+        String outputType = typeExpression(returnType, method);
+        if (hasNonNull(method)) {
+            outputType = "new graphql.schema.GraphQLNonNull(" + outputType + ")";
+        }
+
+        String fetcher = "Field" + index + "Fetcher";
+        String receiver = isStatic ? typeName(types.erasure(method.getEnclosingElement().asType())) : "((" + typeName + ") source)";
+        String call = receiver + "." + method.getSimpleName() + "(" + String.join(", ", invocationArgs) + ")";
+
+        StringBuilder get = new StringBuilder();
+        if (!isStatic) {
+            get.append("            Object source = ").append(detached ? "instanceProvider.getInstance(environment)" : "environment.getSource()").append(";\n");
+            get.append("            if (source == null) {\n");
+            get.append("                return null;\n");
+            get.append("            }\n");
+        }
+        String invocation = method.getReturnType().getKind() == TypeKind.VOID ? call + ";\n" + "            return null;\n" : "return " + call + ";\n";
+        if (detached) {
+            get.append("            try {\n");
+            get.append("                ").append(invocation.replace("\n            ", "\n                "));
+            get.append("            } finally {\n");
+            get.append("                instanceProvider.release(source);\n");
+            get.append("            }\n");
+        } else {
+            get.append("            ").append(invocation);
+        }
+
+        fetcherClasses.append("\n    private static final class ").append(fetcher).append(" implements graphql.schema.DataFetcher {\n");
+        if (detached) {
+            fetcherClasses.append("        private final graphql.annotations.InstanceProvider instanceProvider =\n");
+            fetcherClasses.append("                graphql.annotations.GraphQLAnnotations.instanceProvider(")
+                          .append(typeName(types.erasure(method.getEnclosingElement().asType()))).append(".class);\n\n");
+        }
+        if (batched) {
+            fetcherClasses.append("        @graphql.execution.batched.Batched\n");
+        }
+        fetcherClasses.append("        @Override\n");
+        fetcherClasses.append("        public Object get(graphql.schema.DataFetchingEnvironment environment) {\n");
+        appendGuarded(fetcherClasses, get.toString(), detached || !method.getThrownTypes().isEmpty());
+        fetcherClasses.append("        }\n");
+        fetcherClasses.append("    }\n");
+
+        appendFieldMethod(index, method, fieldName, outputType, arguments.toString(), "new " + fetcher + "()");
+        return "field" + index;
+    }
+
+    private String fieldField(VariableElement field, String typeName) throws UnsupportedElementException {
+        if (annotation(field, ANNOTATIONS + "GraphQLType") != null) {
+            throw new UnsupportedElementException(field, "custom type functions are not supported");
+        }
+        checkAccessibleMember(field);
+        int index = fieldCount++;
+        String fieldName = field.getSimpleName().toString();
+        AnnotationMirror name = annotation(field, ANNOTATIONS + "GraphQLName");
+        if (name != null) {
+            fieldName = stringValue(name, "value");
+        }
+        String outputType = typeExpression(field.asType(), field);
+        if (hasNonNull(field)) {
+            outputType = "new graphql.schema.GraphQLNonNull(" + outputType + ")";
+        }
+        String fetcher = "Field" + index + "Fetcher";
+        String declaringType = typeName(types.erasure(field.getEnclosingElement().asType()));
+
+        fetcherClasses.append("\n    private static final class ").append(fetcher).append(" implements graphql.schema.DataFetcher {\n");
+        fetcherClasses.append("        private final graphql.schema.DataFetcher fallback = new graphql.schema.FieldDataFetcher(")
+                      .append(literal(field.getSimpleName().toString())).append(");\n\n");
+        fetcherClasses.append("        @Override\n");
+        fetcherClasses.append("        public Object get(graphql.schema.DataFetchingEnvironment environment) {\n");
+        fetcherClasses.append("            Object source = environment.getSource();\n");
+        fetcherClasses.append("            if (source instanceof ").append(declaringType).append(") {\n");
+        fetcherClasses.append("                return ((").append(declaringType).append(") source).").append(field.getSimpleName()).append(";\n");
+        fetcherClasses.append("            }\n");
+        fetcherClasses.append("            return fallback.get(environment);\n");
+        fetcherClasses.append("        }\n");
+        fetcherClasses.append("    }\n");
+
+        appendFieldMethod(index, field, fieldName, outputType, "", "new " + fetcher + "()");
+        return "field" + index;
+    }
+
+    private void appendFieldMethod(int index, Element element, String fieldName, String outputType, String arguments,
+                                   String dataFetcher) throws UnsupportedElementException {
+        String type = outputType;
+        AnnotationMirror customFetcher = annotation(element, ANNOTATIONS + "GraphQLDataFetcher");
+        if (customFetcher != null) {
+            TypeMirror fetcherType = classValue(customFetcher);
+            checkAccessible(types.asElement(fetcherType), element);
+            dataFetcher = "new " + typeName(fetcherType) + "()";
+        }
+
+        StringBuilder m = fieldMethods;
+        m.append("\n    private static graphql.schema.GraphQLFieldDefinition field").append(index).append("() throws IllegalAccessException, InstantiationException {\n");
+        m.append("        graphql.schema.GraphQLFieldDefinition.Builder builder = graphql.schema.GraphQLFieldDefinition.newFieldDefinition();\n");
+        m.append("        builder.name(").append(literal(fieldName)).append(");\n");
+        String description = stringValue(annotation(element, ANNOTATIONS + "GraphQLDescription"), "value");
+        if (description != null) {
+            m.append("        builder.description(").append(literal(description)).append(");\n");
+        }
+        if (annotation(element, DEPRECATED) != null) {
+            m.append("        builder.deprecate(\"Deprecated\");\n");
+        } else {
+            String deprecate = stringValue(annotation(element, ANNOTATIONS + "GraphQLDeprecate"), "value");
+            if (deprecate != null) {
+                m.append("        builder.deprecate(").append(literal(deprecate)).append(");\n");
+            }
+        }
+        m.append(arguments);
+        m.append("        graphql.schema.DataFetcher dataFetcher = ").append(dataFetcher).append(";\n");
+
+        AnnotationMirror connection = annotation(element, ANNOTATIONS + "GraphQLConnection");
+        if (connection == null) {
+            m.append("        builder.type((graphql.schema.GraphQLOutputType) ").append(type).append(");\n");
+        } else {
+            String connectionClass = connectionClass(connection, element);
+            String connectionName = stringValue(connection, "name");
+            m.append("        graphql.schema.GraphQLOutputType type = (graphql.schema.GraphQLOutputType) ").append(type).append(";\n");
+            m.append("        if (type instanceof graphql.schema.GraphQLList && ((graphql.schema.GraphQLList) type).getWrappedType() instanceof graphql.schema.GraphQLObjectType) {\n");
+            m.append("            graphql.schema.GraphQLObjectType wrappedType = (graphql.schema.GraphQLObjectType) ((graphql.schema.GraphQLList) type).getWrappedType();\n");
+            m.append("            String connectionName = ").append(connectionName.isEmpty() ? "wrappedType.getName()" : literal(connectionName)).append(";\n");
+            m.append("            graphql.relay.Relay relay = new graphql.relay.Relay();\n");
+            m.append("            graphql.schema.GraphQLObjectType edgeType = relay.edgeType(connectionName, wrappedType, null, java.util.Collections.<graphql.schema.GraphQLFieldDefinition>emptyList());\n");
+            m.append("            type = relay.connectionType(connectionName, edgeType, java.util.Collections.<graphql.schema.GraphQLFieldDefinition>emptyList());\n");
+            m.append("            builder.argument(relay.getConnectionFieldArguments());\n");
+            m.append("            dataFetcher = graphql.annotations.GraphQLAnnotations.connectionDataFetcher(").append(connectionClass)
+             .append(".class, ").append(codecClass(connection, element)).append(".class, dataFetcher, ")
+             .append(arguments(element, customFetcher)).append(");\n");
+            m.append("        }\n");
+            m.append("        builder.type(type);\n");
+        }
+        m.append("        builder.dataFetcher(dataFetcher);\n");
+        m.append("        return new graphql.annotations.GraphQLAnnotations.GraphQLFieldDefinitionWrapper(builder.build());\n");
+        m.append("    }\n");
+    }
+
+    /**
+     * Connection fetchers hide arguments from fetchers that may not expect them, like <code>GraphQLAnnotations</code> does
+     * @return whether the fetcher of a connection field is given the pagination arguments
+     */
+    private static boolean arguments(Element element, AnnotationMirror customFetcher) {
+        return customFetcher == null && (element.getKind() == ElementKind.FIELD || ((ExecutableElement) element).getParameters().isEmpty());
+    }
+
+    /**
+     * @return name of the connection class, which has a public single argument constructor
+     */
+    private String connectionClass(AnnotationMirror connection, Element element) throws UnsupportedElementException {
+        TypeMirror connectionType = classValue(connection, "connection");
+        TypeElement connectionElement = connectionType == null ?
+                elements.getTypeElement(ANNOTATIONS + "DispatchingConnection") : (TypeElement) types.asElement(connectionType);
+        checkAccessible(connectionElement, element);
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(connectionElement.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PUBLIC) && (parameters.size() == 1 ||
+                    parameters.size() == 2 && erasedName(parameters.get(1).asType()).equals(ANNOTATIONS + "CursorCodec"))) {
+                return connectionElement.getQualifiedName().toString();
+            }
+        }
+        throw new UnsupportedElementException(element, connectionElement + " doesn't have a single argument constructor");
+    }
+
+    private String codecClass(AnnotationMirror connection, Element element) throws UnsupportedElementException {
+        TypeMirror codecType = classValue(connection, "codec");
+        TypeElement codecElement = codecType == null ?
+                elements.getTypeElement(ANNOTATIONS + "OffsetCursorCodec") : (TypeElement) types.asElement(codecType);
+        checkAccessible(codecElement, element);
+        return codecElement.getQualifiedName().toString();
+    }
+
+    private void appendGuarded(StringBuilder out, String body, boolean guarded) {
+        if (!guarded) {
+            out.append(body);
+            return;
+        }
+        out.append("            try {\n");
+        out.append(body.replace("\n            ", "\n                ").replaceFirst("^            ", "                "));
+        out.append("            } catch (RuntimeException e) {\n");
+        out.append("                throw e;\n");
+        out.append("            } catch (Exception e) {\n");
+        out.append("                throw new RuntimeException(e);\n");
+        out.append("            }\n");
+    }
+
+    /**
+     * Translates a Java type to an expression producing its GraphQL type, following <code>DefaultTypeFunction</code>
+     */
+    private String typeExpression(TypeMirror t, Element element) throws UnsupportedElementException {
+        String result;
+        switch (t.getKind()) {
+            case BOOLEAN:
+                result = "graphql.Scalars.GraphQLBoolean";
+                break;
+            case INT:
+                result = "graphql.Scalars.GraphQLInt";
+                break;
+            case LONG:
+                result = "graphql.Scalars.GraphQLLong";
+                break;
+            case FLOAT:
+            case DOUBLE:
+                result = "graphql.Scalars.GraphQLFloat";
+                break;
+            case DECLARED:
+                String name = erasedName(t);
+                switch (name) {
+                    case "java.lang.String":
+                        result = "graphql.Scalars.GraphQLString";
+                        break;
+                    case "java.lang.Boolean":
+                        result = "graphql.Scalars.GraphQLBoolean";
+                        break;
+                    case "java.lang.Integer":
+                        result = "graphql.Scalars.GraphQLInt";
+                        break;
+                    case "java.lang.Long":
+                        result = "graphql.Scalars.GraphQLLong";
+                        break;
+                    case "java.lang.Float":
+                    case "java.lang.Double":
+                        result = "graphql.Scalars.GraphQLFloat";
+                        break;
+                    case "java.util.Optional":
+                        result = typeExpression(typeArgument(t, element), element);
+                        break;
+                    case "java.util.stream.Stream":
+                        result = "new graphql.schema.GraphQLList(" + typeExpression(typeArgument(t, element), element) + ")";
+                        break;
+                    default:
+                        if (isList(t)) {
+                            result = "new graphql.schema.GraphQLList(" + typeExpression(typeArgument(t, element), element) + ")";
+                        } else if (((DeclaredType) t).getTypeArguments().isEmpty()) {
+                            checkAccessible(types.asElement(t), element);
+                            result = "graphql.annotations.DefaultTypeFunction.instance.apply(" + name + ".class, null)";
+                        } else {
+                            throw new UnsupportedElementException(element, "unsupported type " + t);
+                        }
+                }
+                break;
+            default:
+                throw new UnsupportedElementException(element, "unsupported type " + t);
+        }
+        if (hasAnnotation(t.getAnnotationMirrors(), ANNOTATIONS + "GraphQLNonNull")) {
+            result = "new graphql.schema.GraphQLNonNull(" + result + ")";
+        }
+        return result;
+    }
+
+    private boolean isList(TypeMirror t) {
+        if (t.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeMirror erasure = types.erasure(t);
+        return types.isSameType(erasure, types.erasure(elements.getTypeElement("java.util.List").asType())) ||
+               types.isSubtype(erasure, types.erasure(elements.getTypeElement("java.util.AbstractList").asType()));
+    }
+
+    private TypeMirror typeArgument(TypeMirror t, Element element) throws UnsupportedElementException {
+        List<? extends TypeMirror> arguments = ((DeclaredType) t).getTypeArguments();
+        if (arguments.size() != 1) {
+            throw new UnsupportedElementException(element, t + " type parameter should be specified");
+        }
+        return arguments.get(0);
+    }
+
+    private boolean hasNonNull(Element element) {
+        return annotation(element, NOT_NULL) != null ||
+               (annotation(element, ANNOTATIONS + "GraphQLNonNull") != null &&
+                !hasAnnotation(returnOrFieldType(element).getAnnotationMirrors(), ANNOTATIONS + "GraphQLNonNull"));
+    }
+
+    private TypeMirror returnOrFieldType(Element element) {
+        return element instanceof ExecutableElement ? ((ExecutableElement) element).getReturnType() : element.asType();
+    }
+
+    /**
+     * @return name of the class if it can be constructed from a <code>HashMap</code> of input object's fields
+     */
+    private String hashMapConstructor(TypeMirror t) {
+        if (t.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) types.asElement(t);
+        if (element.getKind() != ElementKind.CLASS) {
+            return null;
+        }
+        TypeMirror hashMap = types.erasure(elements.getTypeElement("java.util.HashMap").asType());
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().size() == 1 &&
+                types.isSameType(types.erasure(constructor.getParameters().get(0).asType()), hashMap)) {
+                return erasedName(t);
+            }
+        }
+        return null;
+    }
+
+    private void checkAccessible(Element element, Element usage) throws UnsupportedElementException {
+        for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement typeElement = (TypeElement) e;
+            if (typeElement.getNestingKind() != NestingKind.TOP_LEVEL && typeElement.getNestingKind() != NestingKind.MEMBER) {
+                throw new UnsupportedElementException(usage, e + " is a local or anonymous class");
+            }
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedElementException(usage, e + " is private");
+            }
+            if (!e.getModifiers().contains(Modifier.PUBLIC) &&
+                !elements.getPackageOf(e).getQualifiedName().contentEquals(packageName)) {
+                throw new UnsupportedElementException(usage, e + " is not accessible from " + packageName);
+            }
+        }
+    }
+
+    /**
+     * Members are used through their declaring class, so both have to be accessible from the generated class. Protected
+     * members of superclasses in other packages are not, since the generated class is no subclass
+     */
+    private void checkAccessibleMember(Element member) throws UnsupportedElementException {
+        checkAccessible(member.getEnclosingElement(), member);
+        if (member.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedElementException(member, "private members are not supported");
+        }
+        if (!member.getModifiers().contains(Modifier.PUBLIC) &&
+            !elements.getPackageOf(member).getQualifiedName().contentEquals(packageName)) {
+            throw new UnsupportedElementException(member, member + " is not accessible from " + packageName);
+        }
+    }
+
+    private String graphQLName(TypeElement element) {
+        AnnotationMirror name = annotation(element, ANNOTATIONS + "GraphQLName");
+        return name == null ? element.getSimpleName().toString() : stringValue(name, "value");
+    }
+
+    private String typeName(TypeMirror t) {
+        return ((TypeElement) types.asElement(t)).getQualifiedName().toString();
+    }
+
+    private String erasedName(TypeMirror t) {
+        if (t.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) t).getQualifiedName().toString();
+        }
+        TypeMirror erasure = types.erasure(t);
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            return typeName(erasure);
+        }
+        return erasure.toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationName) {
+        if (element == null) {
+            return null;
+        }
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasAnnotation(List<? extends AnnotationMirror> mirrors, String annotationName) {
+        for (AnnotationMirror mirror : mirrors) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        if (mirror == null) {
+            return null;
+        }
+        AnnotationValue value = value(mirror, name);
+        return value == null ? null : (String) value.getValue();
+    }
+
+    private TypeMirror classValue(AnnotationMirror mirror) {
+        return classValue(mirror, "value");
+    }
+
+    private TypeMirror classValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = value(mirror, name);
+        return value == null ? null : (TypeMirror) value.getValue();
+    }
+
+    private static String literal(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
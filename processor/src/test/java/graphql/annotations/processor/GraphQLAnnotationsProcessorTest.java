@@ -0,0 +1,185 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations.processor;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.annotations.EnhancedExecutionStrategy;
+import graphql.annotations.GraphQLAnnotations;
+import graphql.schema.GraphQLObjectType;
+import lombok.SneakyThrows;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.*;
+
+public class GraphQLAnnotationsProcessorTest {
+
+    private static final String SAMPLE = String.join("\n",
+            "package sample;",
+            "import graphql.annotations.*;",
+            "import java.util.*;",
+            "public class Sample {",
+            "    @GraphQLField @GraphQLDescription(\"name\") public String name = \"sample\";",
+            "    @GraphQLField @GraphQLName(\"total\") public int sum(int a, @GraphQLName(\"b\") int second) { return a + second; }",
+            "    @GraphQLField public List<String> getTags() { return Arrays.asList(\"a\", \"b\"); }",
+            "    @GraphQLField @GraphQLConnection public List<Item> items() { return Arrays.asList(new Item(\"1\"), new Item(\"2\")); }",
+            "    @GraphQLField public static String constant() { return \"constant\"; }",
+            "    @GraphQLField @GraphQLConnection @GraphQLDataFetcher(AsyncItems.class) public List<Item> asyncItems;",
+            "    public static class AsyncItems implements graphql.schema.DataFetcher {",
+            "        public Object get(graphql.schema.DataFetchingEnvironment environment) {",
+            "            return java.util.concurrent.CompletableFuture.completedFuture(Arrays.asList(new Item(\"3\"), new Item(\"4\")));",
+            "        }",
+            "    }",
+            "    public static class Item {",
+            "        @GraphQLField public String id;",
+            "        public Item(String id) { this.id = id; }",
+            "    }",
+            "}");
+
+    private static final String UNSUPPORTED = String.join("\n",
+            "package sample;",
+            "import graphql.annotations.*;",
+            "public class Unsupported {",
+            "    @GraphQLField private String secret = \"secret\";",
+            "}");
+
+    private static final String BASE = String.join("\n",
+            "package sample.base;",
+            "import graphql.annotations.*;",
+            "public class Base {",
+            "    @GraphQLField protected String prot = \"protected\";",
+            "    @GraphQLField String pkg = \"package\";",
+            "}");
+
+    private static final String DERIVED = String.join("\n",
+            "package sample;",
+            "import graphql.annotations.*;",
+            "public class Derived extends sample.base.Base {",
+            "    @GraphQLField public String own = \"own\";",
+            "}");
+
+    private ClassLoader classLoader;
+
+    @BeforeClass @SneakyThrows
+    public void compile() {
+        File output = Files.createTempDirectory("processor").toFile();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        List<String> options = Arrays.asList("-d", output.getPath(), "-s", output.getPath(), "-parameters",
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", GraphQLAnnotationsProcessor.class.getName());
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                Arrays.asList(new Source("sample/Sample", SAMPLE), new Source("sample/Unsupported", UNSUPPORTED),
+                              new Source("sample/base/Base", BASE), new Source("sample/Derived", DERIVED))).call();
+        assertTrue(success, diagnostics.getDiagnostics().toString());
+        classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test @SneakyThrows
+    public void generated() {
+        Class<?> sample = classLoader.loadClass("sample.Sample");
+        assertNotNull(classLoader.loadClass("sample.Sample_GraphQLObject").getMethod("objectBuilder"));
+        assertNotNull(classLoader.loadClass("sample.Sample_Item_GraphQLObject").getMethod("objectBuilder"));
+
+        GraphQLObjectType object = GraphQLAnnotations.object(sample);
+        assertEquals(object.getName(), "Sample");
+        assertEquals(object.getFieldDefinition("name").getDescription(), "name");
+        assertEquals(object.getFieldDefinition("total").getArguments().size(), 2);
+
+        ExecutionResult result = new GraphQL(newSchema().query(object).build()).execute(
+                "{ name total(a: 1, b: 2) tags constant items(first: 1) { edges { node { id } } } }", sample.newInstance());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(data.get("name"), "sample");
+        assertEquals(data.get("total"), 3);
+        assertEquals(data.get("tags"), Arrays.asList("a", "b"));
+        assertEquals(data.get("constant"), "constant");
+        List<Map<String, Map<String, Object>>> edges = (List<Map<String, Map<String, Object>>>) ((Map<String, Object>) data.get("items")).get("edges");
+        assertEquals(edges.size(), 1);
+        assertEquals(edges.get(0).get("node").get("id"), "1");
+    }
+
+    @Test @SneakyThrows
+    public void asyncConnection() {
+        Class<?> sample = classLoader.loadClass("sample.Sample");
+        GraphQLObjectType object = GraphQLAnnotations.object(sample);
+        ExecutionResult result = new GraphQL(newSchema().query(object).build(), new EnhancedExecutionStrategy()).execute(
+                "{ asyncItems(last: 1) { edges { node { id } } } }", sample.newInstance());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        List<Map<String, Map<String, Object>>> edges = (List<Map<String, Map<String, Object>>>)
+                ((Map<String, Object>) ((Map<String, Object>) result.getData()).get("asyncItems")).get("edges");
+        assertEquals(edges.size(), 1);
+        assertEquals(edges.get(0).get("node").get("id"), "4");
+    }
+
+    @Test(expectedExceptions = ClassNotFoundException.class)
+    public void unsupported() throws ClassNotFoundException {
+        classLoader.loadClass("sample.Unsupported_GraphQLObject");
+    }
+
+    @Test @SneakyThrows
+    public void unsupportedFallsBackToReflection() {
+        Class<?> unsupported = classLoader.loadClass("sample.Unsupported");
+        GraphQLObjectType object = GraphQLAnnotations.object(unsupported);
+        ExecutionResult result = new GraphQL(newSchema().query(object).build()).execute("{ secret }", unsupported.newInstance());
+        assertEquals(((Map<String, Object>) result.getData()).get("secret"), "secret");
+    }
+
+    @Test @SneakyThrows
+    public void inaccessibleInheritedFields() {
+        assertNotNull(classLoader.loadClass("sample.base.Base_GraphQLObject"));
+        try {
+            classLoader.loadClass("sample.Derived_GraphQLObject");
+            fail("protected and package-private fields of sample.base.Base are not accessible from sample");
+        } catch (ClassNotFoundException e) {
+            // built by reflection instead
+        }
+
+        Class<?> derived = classLoader.loadClass("sample.Derived");
+        GraphQLObjectType object = GraphQLAnnotations.object(derived);
+        ExecutionResult result = new GraphQL(newSchema().query(object).build()).execute("{ own prot pkg }", derived.newInstance());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(data.get("prot"), "protected");
+        assertEquals(data.get("pkg"), "package");
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String name, String code) {
+            super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import java.util.List;
+
+/**
+ * Loads values for many keys at once, for example with a single <code>IN</code> query.
+ *
+ * Fields get a {@link DataLoader} for a batch loader through a parameter annotated with {@link GraphQLBatchLoader}.
+ * Batch loaders are obtained from the registry's {@link InstanceProvider} for their class every time a batch is
+ * loaded, so by default they need a public no-argument constructor.
+ */
+@FunctionalInterface
+public interface BatchLoader<K, V> {
+
+    /**
+     * @param keys distinct keys
+     * @return values in the order of the keys, null where there is none
+     */
+    List<V> load(List<K> keys) throws Exception;
+}
@@ -23,7 +23,11 @@ import java.lang.reflect.Modifier;
 
 public class BatchedMethodDataFetcher extends MethodDataFetcher {
     public BatchedMethodDataFetcher(Method method) {
-        super(method);
+        this(method, TypeRegistry.getDefault());
+    }
+
+    public BatchedMethodDataFetcher(Method method, TypeRegistry registry) {
+        super(method, registry);
         if (!Modifier.isStatic(method.getModifiers())) {
             throw new IllegalArgumentException("Batched method should be static");
         }
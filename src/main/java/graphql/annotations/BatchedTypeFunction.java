@@ -30,6 +30,17 @@ public class BatchedTypeFunction implements TypeFunction {
 
     @Override
     public graphql.schema.GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
+        AnnotatedType arg = element(aClass, annotatedType);
+        return defaultTypeFunction.apply(rawType(arg), arg);
+    }
+
+    @Override
+    public graphql.schema.GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+        AnnotatedType arg = element(aClass, annotatedType);
+        return defaultTypeFunction.apply(rawType(arg), arg, registry);
+    }
+
+    private static AnnotatedType element(Class<?> aClass, AnnotatedType annotatedType) {
         if (!aClass.isAssignableFrom(List.class)) {
             throw new IllegalArgumentException("Batched method should return a List");
         }
@@ -37,13 +48,14 @@ public class BatchedTypeFunction implements TypeFunction {
             throw new IllegalArgumentException("Batched should return parameterized type");
         }
         AnnotatedParameterizedType parameterizedType = (AnnotatedParameterizedType) annotatedType;
-        AnnotatedType arg = parameterizedType.getAnnotatedActualTypeArguments()[0];
-        Class<?> klass;
+        return parameterizedType.getAnnotatedActualTypeArguments()[0];
+    }
+
+    private static Class<?> rawType(AnnotatedType arg) {
         if (arg.getType() instanceof ParameterizedType) {
-            klass = (Class<?>)((ParameterizedType)(arg.getType())).getRawType();
+            return (Class<?>)((ParameterizedType)(arg.getType())).getRawType();
         } else {
-            klass = (Class<?>) arg.getType();
+            return (Class<?>) arg.getType();
         }
-        return defaultTypeFunction.apply(klass, arg);
     }
 }
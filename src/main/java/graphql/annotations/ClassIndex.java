@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Members of a class that GraphQL fields are built from, computed once per class.
+ *
+ * For classes, a public method is a field if it is annotated with {@link GraphQLField} or overrides a field of
+ * a superclass or an implemented interface, however deep in the hierarchy the annotation is. For interfaces,
+ * only non-static methods annotated directly are fields.
+ */
+class ClassIndex {
+
+    private static final ClassValue<ClassIndex> indexes = new ClassValue<ClassIndex>() {
+        @Override
+        protected ClassIndex computeValue(Class<?> type) {
+            return new ClassIndex(type);
+        }
+    };
+
+    private final Set<Signature> fieldSignatures = new HashSet<>();
+    private final List<Method> fieldMethods = new ArrayList<>();
+    private final Map<String, Field> allFields;
+    private final List<Field> fields = new ArrayList<>();
+    private final List<Class<?>> interfaces = new ArrayList<>();
+
+    static ClassIndex of(Class<?> klass) {
+        return indexes.get(klass);
+    }
+
+    private ClassIndex(Class<?> klass) {
+        List<ClassIndex> supers = new ArrayList<>();
+        if (!klass.isInterface()) {
+            if (klass.getSuperclass() != null) {
+                supers.add(of(klass.getSuperclass()));
+            }
+            for (Class<?> iface : klass.getInterfaces()) {
+                supers.add(of(iface));
+                if (GraphQLAnnotations.isInterface(iface)) {
+                    interfaces.add(iface);
+                }
+            }
+        }
+
+        for (Method method : klass.getMethods()) {
+            Signature signature = new Signature(method);
+            boolean valid;
+            if (klass.isInterface()) {
+                valid = !Modifier.isStatic(method.getModifiers()) && method.getAnnotation(GraphQLField.class) != null;
+            } else {
+                valid = method.getAnnotation(GraphQLField.class) != null ||
+                        supers.stream().anyMatch(index -> index.fieldSignatures.contains(signature));
+            }
+            if (valid) {
+                fieldSignatures.add(signature);
+                fieldMethods.add(method);
+            }
+        }
+
+        Map<String, Field> all = klass.getSuperclass() == null ? new HashMap<>() : new HashMap<>(of(klass.getSuperclass()).allFields);
+        for (Field field : klass.getDeclaredFields()) {
+            all.put(field.getName(), field);
+        }
+        allFields = Collections.unmodifiableMap(all);
+        for (Field field : allFields.values()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.getAnnotation(GraphQLField.class) != null) {
+                fields.add(field);
+            }
+        }
+    }
+
+    /**
+     * @return public methods of the class (interface) that are GraphQL fields
+     */
+    List<Method> fieldMethods() {
+        return fieldMethods;
+    }
+
+    /**
+     * @return non-static fields of the class and its superclasses annotated with {@link GraphQLField}
+     */
+    List<Field> fields() {
+        return fields;
+    }
+
+    /**
+     * @return interfaces implemented directly by the class that objects declare as their GraphQL interfaces
+     */
+    List<Class<?>> interfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return fields declared by the class and its superclasses by name, the subclass' ones taking precedence
+     */
+    Map<String, Field> allFields() {
+        return allFields;
+    }
+
+    private static class Signature {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hashCode;
+
+        private Signature(Method method) {
+            name = method.getName();
+            parameterTypes = method.getParameterTypes();
+            hashCode = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature signature = (Signature) o;
+            return name.equals(signature.name) && Arrays.equals(parameterTypes, signature.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.TypeResolver;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type resolver used for interfaces without {@link GraphQLTypeResolver} annotation: resolves an object to the type
+ * built for its class by {@link GraphQLAnnotations#object(Class, TypeRegistry)} as an implementation of the interface,
+ * or else to the type of its nearest superclass that has one, such as for anonymous classes, lambdas or proxies.
+ *
+ * Types are never built while resolving, so objects resolve to types that have been built along with the schema,
+ * even after the registry has dropped its types. Objects of classes without such type don't resolve.
+ */
+public class ClassTypeResolver implements TypeResolver {
+
+    private final Map<Class<?>, GraphQLObjectType> types = new ConcurrentHashMap<>();
+    private volatile ClassValue<Optional<GraphQLObjectType>> resolved = newResolved();
+
+    private ClassValue<Optional<GraphQLObjectType>> newResolved() {
+        return new ClassValue<Optional<GraphQLObjectType>>() {
+            @Override
+            protected Optional<GraphQLObjectType> computeValue(Class<?> type) {
+                for (Class<?> klass = type; klass != null; klass = klass.getSuperclass()) {
+                    GraphQLObjectType objectType = types.get(klass);
+                    if (objectType != null) {
+                        return Optional.of(objectType);
+                    }
+                }
+                return Optional.empty();
+            }
+        };
+    }
+
+    /**
+     * Records the type built for a class implementing the interface
+     */
+    void register(Class<?> klass, GraphQLObjectType type) {
+        if (types.putIfAbsent(klass, type) == null) {
+            // subclasses may have resolved to a supertype's type so far
+            resolved = newResolved();
+        }
+    }
+
+    @Override
+    public GraphQLObjectType getType(Object object) {
+        return resolved.get(object.getClass()).orElse(null);
+    }
+}
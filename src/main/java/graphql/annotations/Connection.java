@@ -17,4 +17,11 @@ package graphql.annotations;
 import graphql.schema.DataFetcher;
 
 public interface Connection extends DataFetcher {
+
+    /**
+     * @return codec this connection encodes cursors with. Override to use signed cursors or a custom format
+     */
+    default CursorCodec getCursorCodec() {
+        return OffsetCursorCodec.INSTANCE;
+    }
 }
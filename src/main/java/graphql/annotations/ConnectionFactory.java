@@ -0,0 +1,149 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import lombok.SneakyThrows;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Creates connections of a class from the data they paginate, bound once per connection class.
+ *
+ * Connections of this package are created with plain constructor calls; other classes' constructors taking the data
+ * and a {@link CursorCodec}, or else the data only, are bound as {@link MethodHandle}s, falling back to reflection
+ * when they can't be unreflected.
+ */
+interface ConnectionFactory {
+
+    /**
+     * @param data data fetched for a connection field
+     * @param codec codec declared by the field, see {@link GraphQLConnection#codec()}
+     * @return connection paginating <code>data</code>
+     */
+    Connection create(Object data, CursorCodec codec);
+
+    ClassValue<ConnectionFactory> factories = new ClassValue<ConnectionFactory>() {
+        @Override
+        protected ConnectionFactory computeValue(Class<?> type) {
+            if (type == DispatchingConnection.class) {
+                return DispatchingConnection::new;
+            }
+            if (type == ListConnection.class) {
+                return (data, codec) -> new ListConnection((List<?>) data, codec);
+            }
+            if (type == StreamConnection.class) {
+                return (data, codec) -> new StreamConnection((Stream<?>) data, codec);
+            }
+            if (type == PageResultConnection.class) {
+                return (data, codec) -> new PageResultConnection((PageResult<?>) data, codec);
+            }
+            Optional<Constructor<?>> constructor = Arrays.asList(type.getConstructors()).stream().
+                    filter(c -> c.getParameterCount() == 2 && c.getParameterTypes()[1] == CursorCodec.class).
+                    findFirst();
+            if (!constructor.isPresent()) {
+                constructor = Arrays.asList(type.getConstructors()).stream().
+                        filter(c -> c.getParameterCount() == 1).
+                        findFirst();
+            }
+            if (!constructor.isPresent()) {
+                throw new IllegalArgumentException(type + " doesn't have a single argument constructor");
+            }
+            try {
+                return new HandleFactory(constructor.get());
+            } catch (IllegalAccessException | RuntimeException e) {
+                return new ReflectiveFactory(constructor.get());
+            }
+        }
+    };
+
+    /**
+     * @param connection connection class with a public single argument constructor
+     * @return factory of <code>connection</code>
+     * @throws IllegalArgumentException if there is no such constructor
+     */
+    static ConnectionFactory of(Class<? extends Connection> connection) {
+        return factories.get(connection);
+    }
+
+    ClassValue<CursorCodec> codecs = new ClassValue<CursorCodec>() {
+        @Override
+        protected CursorCodec computeValue(Class<?> type) {
+            if (type == OffsetCursorCodec.class) {
+                return OffsetCursorCodec.INSTANCE;
+            }
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return (CursorCodec) constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException(type + " can't be created with a no-argument constructor", e);
+            }
+        }
+    };
+
+    /**
+     * @param codec codec class with a no-argument constructor
+     * @return shared instance of <code>codec</code>
+     * @throws IllegalArgumentException if it can't be created
+     */
+    static CursorCodec codec(Class<? extends CursorCodec> codec) {
+        return codecs.get(codec);
+    }
+
+    class HandleFactory implements ConnectionFactory {
+        private final MethodHandle handle;
+
+        HandleFactory(Constructor<?> constructor) throws IllegalAccessException {
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            if (constructor.getParameterCount() == 1) {
+                handle = MethodHandles.dropArguments(handle, 1, CursorCodec.class);
+            }
+            this.handle = handle.asType(MethodType.methodType(Connection.class, Object.class, CursorCodec.class));
+        }
+
+        @Override
+        @SneakyThrows
+        public Connection create(Object data, CursorCodec codec) {
+            return (Connection) handle.invokeExact(data, codec);
+        }
+    }
+
+    class ReflectiveFactory implements ConnectionFactory {
+        private final Constructor<?> constructor;
+
+        ReflectiveFactory(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        @SneakyThrows
+        public Connection create(Object data, CursorCodec codec) {
+            try {
+                return (Connection) (constructor.getParameterCount() == 1 ? constructor.newInstance(data) :
+                                     constructor.newInstance(data, codec));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates one instance per request, using request's context (see <code>GraphQL.execute</code>)
+ * as a scope. The instance is discarded along with the context.
+ *
+ * Requests executed without a context get a new instance for every invocation.
+ */
+public class ContextInstanceProvider implements InstanceProvider {
+    private final Supplier<?> factory;
+    private final ContextScope<Object> scope = new ContextScope<>();
+
+    public ContextInstanceProvider(Supplier<?> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object getInstance(DataFetchingEnvironment environment) {
+        Object context = environment.getContext();
+        if (context == null) {
+            return factory.get();
+        }
+        return scope.get(context, c -> factory.get());
+    }
+}
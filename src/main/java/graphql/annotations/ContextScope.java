@@ -0,0 +1,96 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Associates values with a request's context object (the one passed to <code>GraphQL.execute</code>
+ * and returned by <code>DataFetchingEnvironment.getContext()</code>), or with other objects.
+ *
+ * Contexts are compared by identity and held weakly, so values are discarded together with the
+ * request they belong to.
+ */
+class ContextScope<V> {
+
+    private final Map<Key, V> values = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * @param context request context, must not be null
+     * @param factory creates a value for a context seen for the first time
+     * @return value associated with the context
+     */
+    public V get(Object context, Function<Object, V> factory) {
+        V value = values.get(new Key(context, null));
+        if (value == null) {
+            expunge();
+            value = values.computeIfAbsent(new Key(context, queue), k -> factory.apply(context));
+        }
+        return value;
+    }
+
+    /**
+     * @return value associated with the context, or null
+     */
+    public V get(Object context) {
+        return values.get(new Key(context, null));
+    }
+
+    /**
+     * @return value associated with the context already, or null if <code>value</code> has been associated with it
+     */
+    public V putIfAbsent(Object context, V value) {
+        expunge();
+        return values.putIfAbsent(new Key(context, queue), value);
+    }
+
+    private void expunge() {
+        Object key;
+        while ((key = queue.poll()) != null) {
+            values.remove(key);
+        }
+    }
+
+    private static class Key extends WeakReference<Object> {
+        private final int hashCode;
+
+        Key(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((Key) obj).get();
+        }
+    }
+}
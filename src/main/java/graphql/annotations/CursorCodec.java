@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+/**
+ * Encodes offsets of edges in a connection as cursors and back
+ *
+ * @see Connection#getCursorCodec()
+ */
+public interface CursorCodec {
+
+    /**
+     * @param offset non-negative offset
+     * @return cursor
+     */
+    String encode(int offset);
+
+    /**
+     * @param cursor cursor produced by {@link #encode(int)}
+     * @return offset
+     * @throws IllegalArgumentException if <code>cursor</code> is not a valid cursor
+     */
+    int decode(String cursor);
+}
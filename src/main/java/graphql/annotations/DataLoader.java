@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects keys to load with a {@link BatchLoader} within a request and memoizes the values.
+ *
+ * With {@link EnhancedExecutionStrategy}, a request has one data loader per batch loader class. Keys requested
+ * while the strategy fetches fields are loaded together once it has to wait for them, which loads keys of one
+ * level of the query together, and a key is loaded at most once per request. Keys requested while none of the
+ * request's work is running, from the continuation of another asynchronous result for instance, are loaded right
+ * away. Other execution strategies get a data loader loading each key right away.
+ *
+ * <pre>
+ * &#64;GraphQLField
+ * public CompletableFuture&lt;Customer&gt; customer(&#64;GraphQLBatchLoader(CustomerLoader.class) DataLoader&lt;Long, Customer&gt; customers) {
+ *     return customers.load(customerId);
+ * }
+ * </pre>
+ */
+public class DataLoader<K, V> {
+
+    private final InstanceProvider provider;
+    private final DataFetchingEnvironment environment;
+    private final RequestScope scope;
+
+    private final Map<K, CompletableFuture<V>> values = new HashMap<>();
+    private List<K> queue = new ArrayList<>();
+
+    /**
+     * @param provider provider of the batch loader
+     * @param environment environment to obtain the batch loader with
+     * @param scope scope of the request whose work queues keys until they are dispatched, or null to load them right away
+     */
+    DataLoader(InstanceProvider provider, DataFetchingEnvironment environment, RequestScope scope) {
+        this.provider = provider;
+        this.environment = environment;
+        this.scope = scope;
+    }
+
+    /**
+     * @return data loader of the request being executed
+     */
+    static <K, V> DataLoader<K, V> of(DataFetchingEnvironment environment, Class<?> batchLoader, InstanceProvider provider) {
+        RequestScope scope = RequestScope.of(environment);
+        if (scope == null) {
+            return new DataLoader<>(provider, environment, null);
+        }
+        return scope.loader(batchLoader, () -> new DataLoader<>(provider, environment, scope));
+    }
+
+    /**
+     * @param key key to load
+     * @return value of the key, completed once the key is loaded
+     */
+    public CompletableFuture<V> load(K key) {
+        if (scope != null) {
+            // queueing counts as work of the request, which dispatches the key unless other work is still running
+            return scope.batch(() -> queue(key));
+        }
+        CompletableFuture<V> value = queue(key);
+        dispatch();
+        return value;
+    }
+
+    private synchronized CompletableFuture<V> queue(K key) {
+        CompletableFuture<V> value = values.get(key);
+        if (value == null) {
+            value = new CompletableFuture<>();
+            values.put(key, value);
+            queue.add(key);
+        }
+        return value;
+    }
+
+    synchronized boolean queued() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Loads the queued keys
+     * @return false if there were none
+     */
+    boolean dispatch() {
+        List<K> keys;
+        List<CompletableFuture<V>> pending = new ArrayList<>();
+        synchronized (this) {
+            if (queue.isEmpty()) {
+                return false;
+            }
+            keys = queue;
+            queue = new ArrayList<>();
+            keys.forEach(key -> pending.add(values.get(key)));
+        }
+        try {
+            List<V> loaded = load(keys);
+            if (loaded == null || loaded.size() != keys.size()) {
+                throw new IllegalStateException("batch loader returned " + (loaded == null ? "null" : loaded.size() + " values") +
+                                                " for " + keys.size() + " keys");
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                pending.get(i).complete(loaded.get(i));
+            }
+        } catch (Exception e) {
+            pending.forEach(value -> value.completeExceptionally(e));
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<V> load(List<K> keys) throws Exception {
+        BatchLoader<K, V> batchLoader = (BatchLoader<K, V>) provider.getInstance(environment);
+        try {
+            return batchLoader.load(keys);
+        } finally {
+            provider.release(batchLoader);
+        }
+    }
+}
@@ -25,18 +25,50 @@ import java.lang.reflect.AnnotatedParameterizedType;
 import java.lang.reflect.AnnotatedType;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.BiFunction;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
 import static graphql.schema.GraphQLEnumType.newEnum;
 
+/**
+ * Maps Java types to GraphQL types with the type functions registered in a {@link TypeRegistry}
+ */
 public class DefaultTypeFunction implements TypeFunction {
 
     public static TypeFunction instance = new DefaultTypeFunction();
-    private static Map<String, BiFunction<Class<?>, AnnotatedType, GraphQLType>> registry;
+
+    private final TypeRegistry registry;
+
+    /**
+     * Creates a type function using the default registry
+     */
+    public DefaultTypeFunction() {
+        this(null);
+    }
+
+    /**
+     * @param registry registry to use, or null for the default one
+     */
+    public DefaultTypeFunction(TypeRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Base class for functions building other types: the registry is threaded through them, and the default
+     * one is used when they are invoked directly
+     */
+    private static abstract class RegistryFunction implements TypeFunction {
+
+        @Override
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
+            return apply(aClass, annotatedType, TypeRegistry.getDefault());
+        }
+
+        @Override
+        public abstract GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry);
+    }
 
     private static class StringFunction implements TypeFunction {
 
@@ -78,49 +110,84 @@ public class DefaultTypeFunction implements TypeFunction {
         }
     }
 
-    private static class ListFunction implements TypeFunction {
+    /**
+     * @param aClass list or stream class
+     * @param annotatedType annotated type of the list or stream, if any
+     * @param container {@link List} or {@link Stream}
+     * @return annotated element type: the type argument of <code>annotatedType</code> or, for classes such as
+     * <code>interface Names extends List&lt;String&gt;</code>, the one their supertypes give to the container. Null if
+     * there is none
+     */
+    private static AnnotatedType elementType(Class<?> aClass, AnnotatedType annotatedType, Class<?> container) {
+        if (annotatedType instanceof AnnotatedParameterizedType) {
+            return ((AnnotatedParameterizedType) annotatedType).getAnnotatedActualTypeArguments()[0];
+        }
+        Deque<Class<?>> classes = new ArrayDeque<>();
+        classes.add(aClass);
+        while (!classes.isEmpty()) {
+            Class<?> klass = classes.poll();
+            List<AnnotatedType> supertypes = new ArrayList<>(Arrays.asList(klass.getAnnotatedInterfaces()));
+            if (klass.getAnnotatedSuperclass() != null) {
+                supertypes.add(klass.getAnnotatedSuperclass());
+            }
+            for (AnnotatedType supertype : supertypes) {
+                Type type = supertype.getType();
+                Class<?> raw = (Class<?>) (type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type);
+                if (raw == container) {
+                    if (!(supertype instanceof AnnotatedParameterizedType)) {
+                        return null;
+                    }
+                    AnnotatedType arg = ((AnnotatedParameterizedType) supertype).getAnnotatedActualTypeArguments()[0];
+                    Type argType = arg.getType();
+                    return argType instanceof Class || argType instanceof ParameterizedType ? arg : null;
+                }
+                classes.add(raw);
+            }
+        }
+        return null;
+    }
+
+    private static class ListFunction extends RegistryFunction {
 
         @Override
-        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
-            if (!(annotatedType instanceof AnnotatedParameterizedType)) {
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+            AnnotatedType arg = elementType(aClass, annotatedType, List.class);
+            if (arg == null) {
                 throw new IllegalArgumentException("List type parameter should be specified");
             }
-            AnnotatedParameterizedType parameterizedType = (AnnotatedParameterizedType) annotatedType;
-            AnnotatedType arg = parameterizedType.getAnnotatedActualTypeArguments()[0];
             Class<?> klass;
             if (arg.getType() instanceof ParameterizedType) {
                 klass = (Class<?>)((ParameterizedType)(arg.getType())).getRawType();
             } else {
                 klass = (Class<?>) arg.getType();
             }
-            return new GraphQLList(DefaultTypeFunction.instance.apply(klass, arg));
+            return new GraphQLList(registry.getTypeFunction().apply(klass, arg, registry));
         }
     }
 
-    private static class StreamFunction implements TypeFunction {
+    private static class StreamFunction extends RegistryFunction {
 
         @Override
-        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
-            if (!(annotatedType instanceof AnnotatedParameterizedType)) {
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+            AnnotatedType arg = elementType(aClass, annotatedType, Stream.class);
+            if (arg == null) {
                 throw new IllegalArgumentException("Stream type parameter should be specified");
             }
-            AnnotatedParameterizedType parameterizedType = (AnnotatedParameterizedType) annotatedType;
-            AnnotatedType arg = parameterizedType.getAnnotatedActualTypeArguments()[0];
             Class<?> klass;
             if (arg.getType() instanceof ParameterizedType) {
                 klass = (Class<?>)((ParameterizedType)(arg.getType())).getRawType();
             } else {
                 klass = (Class<?>) arg.getType();
             }
-            return new GraphQLList(DefaultTypeFunction.instance.apply(klass, arg));
+            return new GraphQLList(registry.getTypeFunction().apply(klass, arg, registry));
         }
     }
 
-    private static class OptionalFunction implements TypeFunction {
+    private static class OptionalFunction extends RegistryFunction {
 
         @Override
         @SneakyThrows
-        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
             if (!(annotatedType instanceof AnnotatedParameterizedType)) {
                 throw new IllegalArgumentException("Optional type parameter should be specified");
             }
@@ -132,15 +199,37 @@ public class DefaultTypeFunction implements TypeFunction {
             } else {
                 klass = (Class<?>) arg.getType();
             }
-            return DefaultTypeFunction.instance.apply(klass, arg);
+            return registry.getTypeFunction().apply(klass, arg, registry);
         }
     }
 
-    private static class EnumFunction implements TypeFunction {
+    private static class FutureFunction extends RegistryFunction {
 
         @Override
-        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
-            Class<? extends Enum> enumClass = (Class<? extends Enum>) aClass;
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+            if (!(annotatedType instanceof AnnotatedParameterizedType)) {
+                throw new IllegalArgumentException("CompletionStage type parameter should be specified");
+            }
+            AnnotatedParameterizedType parameterizedType = (AnnotatedParameterizedType) annotatedType;
+            AnnotatedType arg = parameterizedType.getAnnotatedActualTypeArguments()[0];
+            Class<?> klass;
+            if (arg.getType() instanceof ParameterizedType) {
+                klass = (Class<?>)((ParameterizedType)(arg.getType())).getRawType();
+            } else {
+                klass = (Class<?>) arg.getType();
+            }
+            return registry.getTypeFunction().apply(klass, arg, registry);
+        }
+    }
+
+    private static class EnumFunction extends RegistryFunction {
+
+        @Override
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+            GraphQLType cached = registry.typeCache.get(aClass);
+            if (cached != null) {
+                return cached;
+            }
             GraphQLEnumType.Builder builder = newEnum();
 
             GraphQLName name = aClass.getAnnotation(GraphQLName.class);
@@ -151,102 +240,107 @@ public class DefaultTypeFunction implements TypeFunction {
                 builder.description(description.value());
             }
 
-            List<Enum> constants = Arrays.asList(enumClass.getEnumConstants());
+            Map<String, Field> fields = new HashMap<>();
+            for (Field field : aClass.getFields()) {
+                if (field.isEnumConstant()) {
+                    fields.put(field.getName(), field);
+                }
+            }
 
-            Arrays.stream(enumClass.getEnumConstants()).map(Enum::name).forEachOrdered(n -> {
-                try {
-                    Field field = aClass.getField(n);
+            for (Object value : aClass.getEnumConstants()) {
+                Enum<?> constant = (Enum<?>) value;
+                Field field = fields.get(constant.name());
+                if (field != null) {
                     GraphQLName fieldName = field.getAnnotation(GraphQLName.class);
                     GraphQLDescription fieldDescription = field.getAnnotation(GraphQLDescription.class);
-                    Enum constant = constants.stream().filter(c -> c.name().contentEquals(n)).findFirst().get();
-                    String name_ = fieldName == null ? n : fieldName.value();
+                    String name_ = fieldName == null ? constant.name() : fieldName.value();
                     builder.value(name_, constant.ordinal(), fieldDescription == null ? name_ : fieldDescription.value());
-                } catch (NoSuchFieldException e) {
                 }
-            });
+            }
 
-            return builder.build();
+            return registry.typeCache.put(aClass, builder.build());
         }
     }
 
-    private static class ObjectFunction implements TypeFunction {
-
-        private final Map<String, GraphQLTypeReference> processing = new ConcurrentHashMap<>();
-        private final Map<String, GraphQLType> types = new ConcurrentHashMap<>();
+    private static class ObjectFunction extends RegistryFunction {
 
         @Override
         @SneakyThrows
-        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
-            GraphQLName name = aClass.getAnnotation(GraphQLName.class);
-            String typeName = name == null ? aClass.getSimpleName() : name.value();
-            if (processing.containsKey(typeName)) {
-                return processing.get(typeName);
+        public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+            String name = GraphQLAnnotations.typeName(aClass);
+            GraphQLTypeReference reference = registry.typeCache.reference(name);
+            if (reference == null && !aClass.isInterface()) {
+                reference = registry.typeCache.defer(aClass, name, ClassIndex.of(aClass).interfaces());
+            }
+            if (reference != null) {
+                return reference;
+            }
+            if (aClass.isInterface()) {
+                return GraphQLAnnotations.iface(aClass, registry);
             } else {
-                processing.put(typeName, new GraphQLTypeReference(typeName));
-                GraphQLType type;
-                if (aClass.isInterface()) {
-                    type = GraphQLAnnotations.iface(aClass);
-                } else {
-                    type = GraphQLAnnotations.object(aClass);
-                }
-                processing.remove(typeName);
-                types.put(typeName, type);
-                return type;
+                return GraphQLAnnotations.object(aClass, registry);
             }
         }
     }
 
-    static {
-        registry = new ConcurrentHashMap<>();
-
-        register(String.class, new StringFunction());
+    /**
+     * Registers functions for strings, primitives and their boxed types, lists, streams, enums, optionals, futures and objects
+     */
+    static void registerDefaults(TypeRegistry registry) {
+        registry.register(String.class, new StringFunction());
 
-        register(Boolean.class, new BooleanFunction());
-        register(boolean.class, new BooleanFunction());
+        registry.register(Boolean.class, new BooleanFunction());
+        registry.register(boolean.class, new BooleanFunction());
 
-        register(Float.class, new FloatFunction());
-        register(float.class, new FloatFunction());
-        register(Double.class, new FloatFunction());
-        register(double.class, new FloatFunction());
+        registry.register(Float.class, new FloatFunction());
+        registry.register(float.class, new FloatFunction());
+        registry.register(Double.class, new FloatFunction());
+        registry.register(double.class, new FloatFunction());
 
-        register(Integer.class, new IntegerFunction());
-        register(int.class, new IntegerFunction());
+        registry.register(Integer.class, new IntegerFunction());
+        registry.register(int.class, new IntegerFunction());
 
-        register(Long.class, new LongFunction());
-        register(long.class, new LongFunction());
+        registry.register(Long.class, new LongFunction());
+        registry.register(long.class, new LongFunction());
 
-        register(AbstractList.class, new ListFunction());
-        register(List.class, new ListFunction());
-        register(Stream.class, new StreamFunction());
+        registry.register(AbstractList.class, new ListFunction());
+        registry.register(List.class, new ListFunction());
+        registry.register(Stream.class, new StreamFunction());
 
-        register(Enum.class, new EnumFunction());
+        registry.register(Enum.class, new EnumFunction());
 
-        register(Optional.class, new OptionalFunction());
+        registry.register(Optional.class, new OptionalFunction());
+        registry.register(CompletionStage.class, new FutureFunction());
 
-        register(Object.class, new ObjectFunction());
+        registry.register(Object.class, new ObjectFunction());
     }
 
+    /**
+     * Register a type function in the default registry
+     * @see TypeRegistry#register(Class, TypeFunction)
+     */
     public static Class<DefaultTypeFunction> register(Class<?> klass, TypeFunction function) {
-        registry.put(klass.getName(), function);
+        TypeRegistry.getDefault().register(klass, function);
         return DefaultTypeFunction.class;
     }
 
+    /**
+     * @param klass Java type
+     * @param registry registry the type is built with
+     * @return true if <code>klass</code> is mapped to a GraphQL object, interface or union type
+     */
+    static boolean isObject(Class<?> klass, TypeRegistry registry) {
+        return registry.function(klass) instanceof ObjectFunction;
+    }
+
     @Override
     public GraphQLType apply(Class<?> klass, AnnotatedType annotatedType) {
-        Class<?> t = klass;
-
-        while (!registry.containsKey(t.getName())) {
-            if (t.getSuperclass() == null && t.isInterface()) {
-                t = Object.class;
-                continue;
-            }
-            t = t.getSuperclass();
-            if (t == null) {
-                throw new IllegalArgumentException("unsupported type");
-            }
-        }
+        return apply(klass, annotatedType, registry == null ? TypeRegistry.getDefault() : registry);
+    }
 
-        GraphQLType result = registry.get(t.getName()).apply(klass, annotatedType);
+    @Override
+    public GraphQLType apply(Class<?> klass, AnnotatedType annotatedType, TypeRegistry registry) {
+        GraphQLType result = registry.function(klass).apply(klass, annotatedType, registry);
 
         if (klass.getAnnotation(GraphQLNonNull.class) != null ||
             (annotatedType != null && annotatedType.getAnnotation(GraphQLNonNull.class) != null)) {
@@ -21,18 +21,29 @@ import java.util.List;
 import java.util.stream.Stream;
 
 public class DispatchingConnection implements DataFetcher, Connection {
-    private final DataFetcher connection;
+    private final Connection connection;
 
     public DispatchingConnection(Object o) {
-        if (o instanceof List) {
-            connection = new ListConnection((List<?>) o);
+        this(o, OffsetCursorCodec.INSTANCE);
+    }
+
+    public DispatchingConnection(Object o, CursorCodec codec) {
+        if (o instanceof PageResult) {
+            connection = new PageResultConnection((PageResult<?>) o, codec);
+        } else if (o instanceof List) {
+            connection = new ListConnection((List<?>) o, codec);
         } else if (o instanceof Stream) {
-            connection = new StreamConnection((Stream<?>) o);
+            connection = new StreamConnection((Stream<?>) o, codec);
         } else {
             throw new RuntimeException("unsupported type " + o.getClass());
         }
     }
 
+    @Override
+    public CursorCodec getCursorCodec() {
+        return connection.getCursorCodec();
+    }
+
     @Override
     public Object get(DataFetchingEnvironment environment) {
         return connection.get(environment);
@@ -16,49 +16,245 @@ package graphql.annotations;
 
 import graphql.ExceptionWhileDataFetching;
 import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLException;
 import graphql.execution.ExecutionContext;
 import graphql.execution.SimpleExecutionStrategy;
 import graphql.language.*;
 import graphql.schema.*;
+import graphql.schema.GraphQLNonNull;
 import graphql.schema.GraphQLType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
+/**
+ * Completes fields as their values become available: fields returning a {@link CompletionStage} are completed once
+ * it completes, while their siblings and everything else not waiting for it proceed, so that independent remote
+ * calls overlap. The calling thread waits for the whole result only.
+ *
+ * Keys queued by {@link DataLoader}s are loaded whenever there's nothing left to do but wait, which loads keys
+ * requested by fields of one level of the query together.
+ *
+ * Given an executor, sibling fields, and optionally elements of lists, are fetched and completed concurrently on
+ * it, except for fields of the mutation type, which are resolved one after another. Given a blocking executor,
+ * methods annotated with {@link GraphQLBlocking} are invoked on it, see {@link BlockingExecutors}, while their
+ * siblings proceed.
+ *
+ * Fetched enums and optionals are unwrapped, and the Relay <code>clientMutationId</code> is taken from the
+ * mutation's input.
+ */
 public class EnhancedExecutionStrategy extends SimpleExecutionStrategy {
 
     private static final Logger log = LoggerFactory.getLogger(EnhancedExecutionStrategy.class);
     private static final String CLIENT_MUTATION_ID = "clientMutationId";
 
+    private final Executor executor;
+    private final boolean concurrentLists;
+    private final Executor blockingExecutor;
+
+    public EnhancedExecutionStrategy() {
+        this(null, false);
+    }
+
+    /**
+     * @param executor executor to resolve sibling fields on concurrently
+     */
+    public EnhancedExecutionStrategy(Executor executor) {
+        this(executor, false);
+    }
+
+    /**
+     * @param executor executor to resolve sibling fields on concurrently, or null to resolve them on the thread
+     *                 fetching their object
+     * @param concurrentLists whether elements of lists are completed concurrently as well
+     */
+    public EnhancedExecutionStrategy(Executor executor, boolean concurrentLists) {
+        this(executor, concurrentLists, null);
+    }
+
+    /**
+     * @param executor executor to resolve sibling fields on concurrently, or null to resolve them on the thread
+     *                 fetching their object
+     * @param concurrentLists whether elements of lists are completed concurrently as well
+     * @param blockingExecutor executor to invoke methods annotated with {@link GraphQLBlocking} on, or null to
+     *                         invoke them inline
+     */
+    public EnhancedExecutionStrategy(Executor executor, boolean concurrentLists, Executor blockingExecutor) {
+        this.executor = executor;
+        this.concurrentLists = concurrentLists && executor != null;
+        this.blockingExecutor = blockingExecutor;
+    }
+
     @Override
-    protected ExecutionResult resolveField(ExecutionContext executionContext, GraphQLObjectType parentType, Object source, List<Field> fields) {
-        GraphQLFieldDefinition fieldDef = getFieldDef(executionContext.getGraphQLSchema(), parentType, fields.get(0));
-        if (fieldDef == null) return null;
+    public ExecutionResult execute(ExecutionContext executionContext, GraphQLObjectType parentType, Object source, Map<String, List<Field>> fields) {
+        RequestScope scope = RequestScope.of(executionContext, blockingExecutor);
+        CompletableFuture<Map<String, Object>> data = scope.batch(() -> executeObject(executionContext, scope, parentType, source, fields));
+        try {
+            return new ExecutionResultImpl(data.join(), executionContext.getErrors());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
-        if (fieldDef.getName().contentEquals(CLIENT_MUTATION_ID)) {
-            Field field = (Field) executionContext.getOperationDefinition().getSelectionSet().getSelections().get(0);
-            Argument argument = field.getArguments().get(0);
-
-            Object clientMutationId;
-            if (argument.getValue() instanceof  VariableReference) {
-                VariableReference ref = (VariableReference) argument.getValue();
-                HashMap mutationInputVariables = (HashMap) executionContext.getVariables().get(ref.getName());
-                clientMutationId = mutationInputVariables.get(CLIENT_MUTATION_ID);
+    private CompletableFuture<Map<String, Object>> executeObject(ExecutionContext executionContext, RequestScope scope,
+                                                                 GraphQLObjectType parentType, Object source, Map<String, List<Field>> fields) {
+        String[] names = new String[fields.size()];
+        CompletableFuture<?>[] values = new CompletableFuture<?>[fields.size()];
+        boolean concurrent = executor != null && fields.size() > 1 && parentType != executionContext.getGraphQLSchema().getMutationType();
+        int i = 0;
+        for (Map.Entry<String, List<Field>> entry : fields.entrySet()) {
+            List<Field> fieldList = entry.getValue();
+            GraphQLFieldDefinition fieldDef = getFieldDef(executionContext.getGraphQLSchema(), parentType, fieldList.get(0));
+            names[i] = entry.getKey();
+            if (fieldDef == null) {
+                values[i] = CompletableFuture.completedFuture(null);
+            } else if (concurrent) {
+                values[i] = scope.batch(() -> resolve(executionContext, scope, parentType, source, fieldList, fieldDef), executor);
             } else {
-                ObjectValue value = (ObjectValue) field.getArguments().get(0).getValue();
-                StringValue clientMutationIdVal = (StringValue) value.getObjectFields().stream()
-                        .filter(f -> f.getName().contentEquals(CLIENT_MUTATION_ID))
-                        .findFirst().get().getValue();
-                clientMutationId = clientMutationIdVal.getValue();
+                values[i] = resolve(executionContext, scope, parentType, source, fieldList, fieldDef);
+            }
+            i++;
+        }
+        return CompletableFuture.allOf(values).thenApply(v -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (int j = 0; j < names.length; j++) {
+                data.put(names[j], values[j].join());
+            }
+            return data;
+        });
+    }
+
+    private CompletableFuture<Object> resolve(ExecutionContext executionContext, RequestScope scope, GraphQLObjectType parentType,
+                                              Object source, List<Field> fields, GraphQLFieldDefinition fieldDef) {
+        Object value = fetch(executionContext, scope, parentType, source, fields, fieldDef);
+        return completeAsync(executionContext, scope, fieldDef.getType(), fields, value);
+    }
+
+    private Object fetch(ExecutionContext executionContext, RequestScope scope, GraphQLObjectType parentType, Object source,
+                         List<Field> fields, GraphQLFieldDefinition fieldDef) {
+        if (fieldDef.getName().contentEquals(CLIENT_MUTATION_ID)) {
+            return clientMutationId(executionContext);
+        }
+        Map<String, Object> arguments = valuesResolver.getArgumentValues(fieldDef.getArguments(), fields.get(0).getArguments(),
+                executionContext.getVariables());
+        DataFetchingEnvironment environment = new RequestEnvironment(source, arguments, executionContext.getRoot(), fields,
+                fieldDef.getType(), parentType, executionContext.getGraphQLSchema(), scope);
+        try {
+            return fieldDef.getDataFetcher().get(environment);
+        } catch (Exception e) {
+            addError(executionContext, e);
+            return null;
+        }
+    }
+
+    /**
+     * Completes a value once it is available. Values completed later are completed on the thread completing them,
+     * loading keys their completion queues afterwards.
+     */
+    private CompletableFuture<Object> completeAsync(ExecutionContext executionContext, RequestScope scope, GraphQLType fieldType,
+                                                    List<Field> fields, Object result) {
+        if (!(result instanceof CompletionStage)) {
+            return complete(executionContext, scope, fieldType, fields, result);
+        }
+        return ((CompletionStage<?>) result).toCompletableFuture().handle((value, e) -> {
+            if (e == null) {
+                return value;
             }
+            addError(executionContext, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            return null;
+        }).thenCompose(value -> scope.batch(() -> complete(executionContext, scope, fieldType, fields, value)));
+    }
+
+    /**
+     * Errors are added by threads completing values as well
+     */
+    private static void addError(ExecutionContext executionContext, Throwable e) {
+        log.info("Exception while fetching data", e);
+        synchronized (executionContext) {
+            executionContext.addError(new ExceptionWhileDataFetching(e));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> complete(ExecutionContext executionContext, RequestScope scope, GraphQLType fieldType,
+                                               List<Field> fields, Object result) {
+        if (result instanceof Optional) {
+            result = ((Optional<?>) result).orElse(null);
+        }
+        if (fieldType instanceof GraphQLNonNull) {
+            return complete(executionContext, scope, ((GraphQLNonNull) fieldType).getWrappedType(), fields, result).thenApply(completed -> {
+                if (completed == null) {
+                    throw new GraphQLException("Cannot return null for non-nullable type: " + fields);
+                }
+                return completed;
+            });
+        }
+        if (result == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (fieldType instanceof GraphQLList) {
+            GraphQLType wrappedType = ((GraphQLList) fieldType).getWrappedType();
+            Iterable<?> items = result.getClass().isArray() ? Arrays.asList((Object[]) result) : (Iterable<?>) result;
+            List<CompletableFuture<Object>> completed = new ArrayList<>();
+            for (Object item : items) {
+                completed.add(concurrentLists ? scope.batch(() -> completeAsync(executionContext, scope, wrappedType, fields, item), executor) :
+                              completeAsync(executionContext, scope, wrappedType, fields, item));
+            }
+            return CompletableFuture.allOf(completed.toArray(new CompletableFuture<?>[completed.size()])).thenApply(v -> {
+                List<Object> list = new ArrayList<>(completed.size());
+                completed.forEach(item -> list.add(item.join()));
+                return list;
+            });
+        }
+        if (fieldType instanceof GraphQLScalarType || fieldType instanceof GraphQLEnumType) {
+            ExecutionResult completed = completeValue(executionContext, fieldType, fields, result);
+            return CompletableFuture.completedFuture(completed == null ? null : completed.getData());
+        }
+
+        GraphQLObjectType resolvedType;
+        if (fieldType instanceof GraphQLInterfaceType) {
+            resolvedType = resolveType((GraphQLInterfaceType) fieldType, result);
+        } else if (fieldType instanceof GraphQLUnionType) {
+            resolvedType = resolveType((GraphQLUnionType) fieldType, result);
+        } else {
+            resolvedType = (GraphQLObjectType) fieldType;
+        }
+        Map<String, List<Field>> subFields = new LinkedHashMap<>();
+        List<String> visitedFragments = new ArrayList<>();
+        for (Field field : fields) {
+            if (field.getSelectionSet() != null) {
+                fieldCollector.collectFields(executionContext, resolvedType, field.getSelectionSet(), visitedFragments, subFields);
+            }
+        }
+        return (CompletableFuture<Object>) (CompletableFuture<?>) executeObject(executionContext, scope, resolvedType, result, subFields);
+    }
+
+    private Object clientMutationId(ExecutionContext executionContext) {
+        Field field = (Field) executionContext.getOperationDefinition().getSelectionSet().getSelections().get(0);
+        Argument argument = field.getArguments().get(0);
 
-            return completeValue(executionContext, fieldDef.getType(), fields, clientMutationId);
+        Object clientMutationId;
+        if (argument.getValue() instanceof  VariableReference) {
+            VariableReference ref = (VariableReference) argument.getValue();
+            HashMap mutationInputVariables = (HashMap) executionContext.getVariables().get(ref.getName());
+            clientMutationId = mutationInputVariables.get(CLIENT_MUTATION_ID);
         } else {
-            return super.resolveField(executionContext, parentType, source, fields);
+            ObjectValue value = (ObjectValue) field.getArguments().get(0).getValue();
+            StringValue clientMutationIdVal = (StringValue) value.getObjectFields().stream()
+                    .filter(f -> f.getName().contentEquals(CLIENT_MUTATION_ID))
+                    .findFirst().get().getValue();
+            clientMutationId = clientMutationIdVal.getValue();
         }
+        return clientMutationId;
     }
 
     @Override
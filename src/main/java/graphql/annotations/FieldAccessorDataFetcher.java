@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldDataFetcher;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads a field through a getter {@link MethodHandle} that is bound once, when the field is built.
+ * Non-public fields are made accessible first.
+ *
+ * Sources that aren't instances of the field's declaring class (maps, for example) are handled
+ * by graphql-java's {@link FieldDataFetcher}, as are fields that can't be unreflected.
+ */
+class FieldAccessorDataFetcher implements DataFetcher {
+    private final Class<?> declaringClass;
+    private final MethodHandle getter;
+    private final DataFetcher fallback;
+
+    public FieldAccessorDataFetcher(Field field) {
+        this.declaringClass = field.getDeclaringClass();
+        this.getter = getter(field);
+        this.fallback = new FieldDataFetcher(field.getName());
+    }
+
+    private static MethodHandle getter(Field field) {
+        try {
+            field.setAccessible(true);
+        } catch (RuntimeException e) {
+            // rely on regular access checks
+        }
+        try {
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        Object source = environment.getSource();
+        if (source == null) {
+            return null;
+        }
+        if (getter != null && declaringClass.isInstance(source)) {
+            try {
+                return (Object) getter.invokeExact(source);
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return fallback.get(environment);
+    }
+}
@@ -23,6 +23,7 @@ import javax.validation.constraints.NotNull;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,26 +37,80 @@ import static graphql.schema.GraphQLUnionType.newUnionType;
 /**
  * A utility class for extracting GraphQL data structures from annotated
  * elements.
+ *
+ * Methods taking a {@link TypeRegistry} build types with that registry; the other ones use the
+ * {@link TypeRegistry#getDefault() default registry}.
  */
 public class GraphQLAnnotations {
 
+    /**
+     * Register a provider of instances in the default registry
+     * @see TypeRegistry#registerInstanceProvider(Class, InstanceProvider)
+     */
+    public static void registerInstanceProvider(Class<?> klass, InstanceProvider provider) {
+        TypeRegistry.getDefault().registerInstanceProvider(klass, provider);
+    }
+
+    /**
+     * @see TypeRegistry#instanceProvider(Class)
+     */
+    public static InstanceProvider instanceProvider(Class<?> klass) {
+        return TypeRegistry.getDefault().instanceProvider(klass);
+    }
+
     /**
      * Extract GraphQLInterfaceType from an interface
      * @param iface interface
      * @return
      * @throws IllegalAccessException
      * @throws InstantiationException
-     * @throws IllegalArgumentException if <code>iface</code> is not an interface or doesn't have <code>@GraphTypeResolver</code> annotation
+     * @throws IllegalArgumentException if <code>iface</code> is not an interface
      */
     public static graphql.schema.GraphQLType iface(Class<?> iface) throws IllegalAccessException, InstantiationException {
-        if (iface.getAnnotation(GraphQLUnion.class) != null) {
-            return unionBuilder(iface).build();
-        } else {
-            return ifaceBuilder(iface).build();
+        return iface(iface, TypeRegistry.getDefault());
+    }
+
+    /**
+     * Extract GraphQLInterfaceType from an interface
+     * @param iface interface
+     * @param registry registry to build the type with
+     * @return
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     * @throws IllegalArgumentException if <code>iface</code> is not an interface
+     */
+    public static graphql.schema.GraphQLType iface(Class<?> iface, TypeRegistry registry) throws IllegalAccessException, InstantiationException {
+        TypeCache typeCache = registry.typeCache;
+        graphql.schema.GraphQLType cached = typeCache.get(iface);
+        if (cached != null) {
+            return cached;
+        }
+        TypeCache.Frame frame = typeCache.enter(iface, typeName(iface));
+        try {
+            if (iface.getAnnotation(GraphQLUnion.class) != null) {
+                typeCache.finish(frame, unionBuilder(iface, registry).build());
+            } else {
+                typeCache.finish(frame, ifaceBuilder(iface, registry).build());
+            }
+            buildDeferred(frame, registry);
+        } finally {
+            typeCache.exit(frame);
+        }
+        return typeCache.get(frame);
+    }
+
+    @SneakyThrows
+    private static void buildDeferred(TypeCache.Frame frame, TypeRegistry registry) {
+        for (Class<?> object : frame.getDeferred()) {
+            object(object, registry);
         }
     }
 
     public static GraphQLUnionType.Builder unionBuilder(Class<?> iface) throws InstantiationException, IllegalAccessException {
+        return unionBuilder(iface, TypeRegistry.getDefault());
+    }
+
+    public static GraphQLUnionType.Builder unionBuilder(Class<?> iface, TypeRegistry registry) throws InstantiationException, IllegalAccessException {
         if (!iface.isInterface()) {
             throw new IllegalArgumentException(iface + " is not an interface");
         }
@@ -79,17 +134,31 @@ public class GraphQLAnnotations {
                     @Override
                     @SneakyThrows
                     public graphql.schema.GraphQLType apply(Class<?> aClass) {
-                        return typeFunction.apply(aClass, null);
+                        return typeFunction.apply(aClass, null, registry);
                     }
                 })
                 .map(v -> (GraphQLObjectType)v)
                 .forEach(builder::possibleType);
 
-        builder.typeResolver(new UnionTypeResolver(unionAnnotation.possibleTypes()));
+        builder.typeResolver(new UnionTypeResolver(unionAnnotation.possibleTypes(), registry));
         return builder;
     }
 
+    /**
+     * @param iface interface
+     * @return true if objects implementing <code>iface</code> should declare it as their GraphQL interface:
+     * it has <code>@GraphQLTypeResolver</code> annotation or, unless it is a union, fields of its own
+     */
+    static boolean isInterface(Class<?> iface) {
+        return iface.getAnnotation(GraphQLTypeResolver.class) != null ||
+               (iface.getAnnotation(GraphQLUnion.class) == null && !ClassIndex.of(iface).fieldMethods().isEmpty());
+    }
+
     public static GraphQLInterfaceType.Builder ifaceBuilder(Class<?> iface) throws InstantiationException, IllegalAccessException {
+        return ifaceBuilder(iface, TypeRegistry.getDefault());
+    }
+
+    public static GraphQLInterfaceType.Builder ifaceBuilder(Class<?> iface, TypeRegistry registry) throws InstantiationException, IllegalAccessException {
         if (!iface.isInterface()) {
             throw new IllegalArgumentException(iface + " is not an interface");
         }
@@ -101,55 +170,54 @@ public class GraphQLAnnotations {
         if (description != null) {
             builder.description(description.value());
         }
-        for (Method method : iface.getMethods()) {
-            boolean valid = !Modifier.isStatic(method.getModifiers()) &&
-                    method.getAnnotation(GraphQLField.class) != null;
-            if (valid) {
-                builder.field(field(method));
-            }
+        for (Method method : ClassIndex.of(iface).fieldMethods()) {
+            builder.field(field(method, registry));
         }
         GraphQLTypeResolver typeResolver = iface.getAnnotation(GraphQLTypeResolver.class);
-        if (typeResolver == null) {
-            throw new IllegalArgumentException(iface + " should have @GraphQLTypeResolver annotation defined");
-        }
-        builder.typeResolver(typeResolver.value().newInstance());
+        builder.typeResolver(typeResolver == null ? new ClassTypeResolver() : registry.typeResolver(typeResolver.value()));
         return builder;
     }
 
-    private static Class<?> getDeclaringClass(Method method) {
-        Class<?> object = method.getDeclaringClass();
-        Class<?> declaringClass = object;
-        for (Class<?> iface : object.getInterfaces()) {
-            try {
-                iface.getMethod(method.getName(), method.getParameterTypes());
-                declaringClass = iface;
-            } catch (NoSuchMethodException e) {
-            }
-        }
-
-        try {
-            if (object.getSuperclass() != null) {
-                object.getSuperclass().getMethod(method.getName(), method.getParameterTypes());
-                declaringClass = object.getSuperclass();
-            }
-        } catch (NoSuchMethodException e) {
-        }
-        return declaringClass;
-
+    /**
+     * Extract GraphQLObjectType from a class
+     * @param object
+     * @return
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     * @throws NoSuchMethodException
+     */
+    public static GraphQLObjectType object(Class<?> object) throws IllegalAccessException, InstantiationException, NoSuchMethodException {
+        return object(object, TypeRegistry.getDefault());
     }
 
     /**
      * Extract GraphQLObjectType from a class
      * @param object
+     * @param registry registry to build the type with
      * @return
      * @throws IllegalAccessException
      * @throws InstantiationException
      * @throws NoSuchMethodException
      */
-    public static GraphQLObjectType object(Class<?> object) throws IllegalAccessException, InstantiationException, NoSuchMethodException {
-        GraphQLObjectType.Builder builder = objectBuilder(object);
+    public static GraphQLObjectType object(Class<?> object, TypeRegistry registry) throws IllegalAccessException, InstantiationException, NoSuchMethodException {
+        TypeCache typeCache = registry.typeCache;
+        graphql.schema.GraphQLType cached = typeCache.get(object);
+        if (cached != null) {
+            return (GraphQLObjectType) cached;
+        }
+        TypeCache.Frame frame = typeCache.enter(object, typeName(object));
+        try {
+            GraphQLObjectType.Builder builder = objectBuilder(object, registry);
+            typeCache.finish(frame, new GraphQLObjectTypeWrapper(builder.build()));
+        } finally {
+            typeCache.exit(frame);
+        }
+        return (GraphQLObjectType) typeCache.get(frame);
+    }
 
-        return new GraphQLObjectTypeWrapper(builder.build());
+    static String typeName(Class<?> klass) {
+        GraphQLName name = klass.getAnnotation(GraphQLName.class);
+        return name == null ? klass.getSimpleName() : name.value();
     }
 
     public static class GraphQLObjectTypeWrapper extends GraphQLObjectType {
@@ -181,7 +249,46 @@ public class GraphQLAnnotations {
         }
     }
 
+    /**
+     * Suffix of classes generated by <code>graphql.annotations.processor.GraphQLAnnotationsProcessor</code>
+     */
+    private static final String GENERATED_SUFFIX = "_GraphQLObject";
+
+    /**
+     * <code>objectBuilder()</code> methods of classes generated at compile time, if any. Generated builders refer
+     * to other types through the static methods, so they are only used with the default registry
+     */
+    private static final ClassValue<Optional<Method>> generatedBuilders = new ClassValue<Optional<Method>>() {
+        @Override
+        protected Optional<Method> computeValue(Class<?> type) {
+            ClassLoader classLoader = type.getClassLoader();
+            if (classLoader == null || type.isAnonymousClass() || type.isLocalClass()) {
+                return Optional.empty();
+            }
+            String packagePrefix = type.getPackage() == null ? "" : type.getPackage().getName() + ".";
+            String name = packagePrefix + type.getName().substring(packagePrefix.length()).replace('$', '_') + GENERATED_SUFFIX;
+            if (classLoader.getResource(name.replace('.', '/') + ".class") == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(Class.forName(name, true, classLoader).getMethod("objectBuilder"));
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
     public static GraphQLObjectType.Builder objectBuilder(Class<?> object) throws NoSuchMethodException, InstantiationException, IllegalAccessException {
+        return objectBuilder(object, TypeRegistry.getDefault());
+    }
+
+    public static GraphQLObjectType.Builder objectBuilder(Class<?> object, TypeRegistry registry) throws NoSuchMethodException, InstantiationException, IllegalAccessException {
+        if (registry == TypeRegistry.getDefault()) {
+            Optional<Method> generated = generatedBuilders.get(object);
+            if (generated.isPresent()) {
+                return generatedObjectBuilder(generated.get());
+            }
+        }
         GraphQLObjectType.Builder builder = newObject();
         GraphQLName name = object.getAnnotation(GraphQLName.class);
         builder.name(name == null ? object.getSimpleName() : name.value());
@@ -189,62 +296,45 @@ public class GraphQLAnnotations {
         if (description != null) {
             builder.description(description.value());
         }
-        for (Method method : object.getMethods()) {
-
-            Class<?> declaringClass = getDeclaringClass(method);
-
-            boolean valid = (method.getAnnotation(GraphQLField.class) != null ||
-                     declaringClass.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(GraphQLField.class) != null);
-
-            if (valid) {
-                builder.field(field(method));
-            }
+        ClassIndex index = ClassIndex.of(object);
+        for (Method method : index.fieldMethods()) {
+            builder.field(field(method, registry));
         }
 
-        for (Field field : getAllFields(object).values()) {
-            boolean valid = !Modifier.isStatic(field.getModifiers()) &&
-                    field.getAnnotation(GraphQLField.class) != null;
-            if (valid) {
-                builder.field(field(field));
-            }
+        for (Field field : index.fields()) {
+            builder.field(field(field, registry));
         }
 
-        for (Class<?> iface : object.getInterfaces()) {
-            if (iface.getAnnotation(GraphQLTypeResolver.class) != null) {
-                builder.withInterface((GraphQLInterfaceType) iface(iface));
-            }
+        for (Class<?> iface : index.interfaces()) {
+            builder.withInterface((GraphQLInterfaceType) iface(iface, registry));
         }
         return builder;
     }
 
-    protected static Map<String, Field> getAllFields(Class c) {
-        Map<String, Field> fields;
-
-        if(c.getSuperclass() != null) {
-            fields = getAllFields(c.getSuperclass());
-        } else {
-            fields = new HashMap<>();
-        }
-
-        for(Field f : c.getDeclaredFields()) {
-            fields.put(f.getName(), f);
+    @SneakyThrows
+    private static GraphQLObjectType.Builder generatedObjectBuilder(Method objectBuilder) {
+        try {
+            return (GraphQLObjectType.Builder) objectBuilder.invoke(null);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
+    }
 
-        return fields;
+    protected static Map<String, Field> getAllFields(Class c) {
+        return new HashMap<>(ClassIndex.of(c).allFields());
     }
 
 
     protected static GraphQLFieldDefinition field(Field field) throws IllegalAccessException, InstantiationException {
+        return field(field, TypeRegistry.getDefault());
+    }
+
+    protected static GraphQLFieldDefinition field(Field field, TypeRegistry registry) throws IllegalAccessException, InstantiationException {
         GraphQLFieldDefinition.Builder builder = newFieldDefinition();
         GraphQLName name = field.getAnnotation(GraphQLName.class);
         builder.name(name == null ? field.getName() : name.value());
-        GraphQLType annotation = field.getAnnotation(GraphQLType.class);
-        if (annotation == null) {
-            annotation = new defaultGraphQLType();
-        }
-
-        TypeFunction typeFunction = annotation.value().newInstance();
-        GraphQLOutputType type = (GraphQLOutputType) typeFunction.apply(field.getType(), field.getAnnotatedType());
+        TypeFunction typeFunction = typeFunction(field);
+        GraphQLOutputType type = (GraphQLOutputType) typeFunction.apply(field.getType(), field.getAnnotatedType(), registry);
 
         GraphQLOutputType outputType = field.getAnnotation(NotNull.class) == null ? type : new GraphQLNonNull(type);
 
@@ -267,11 +357,14 @@ public class GraphQLAnnotations {
         }
 
         GraphQLDataFetcher dataFetcher = field.getAnnotation(GraphQLDataFetcher.class);
-        DataFetcher actualDataFetcher = dataFetcher == null ? new FieldDataFetcher(field.getName()) : dataFetcher.value().newInstance();
+        DataFetcher actualDataFetcher = dataFetcher == null ? new FieldAccessorDataFetcher(field) : dataFetcher.value().newInstance();
 
 
         if (isConnection) {
-            actualDataFetcher = new ConnectionDataFetcher(field.getAnnotation(GraphQLConnection.class).connection(), actualDataFetcher);
+            // field accessors don't look at arguments
+            GraphQLConnection connection = field.getAnnotation(GraphQLConnection.class);
+            actualDataFetcher = new ConnectionDataFetcher(connection.connection(), connection.codec(), actualDataFetcher,
+                    dataFetcher == null);
         }
 
         builder.dataFetcher(actualDataFetcher);
@@ -302,6 +395,10 @@ public class GraphQLAnnotations {
     }
 
     protected static GraphQLFieldDefinition field(Method method) throws InstantiationException, IllegalAccessException {
+        return field(method, TypeRegistry.getDefault());
+    }
+
+    protected static GraphQLFieldDefinition field(Method method, TypeRegistry registry) throws InstantiationException, IllegalAccessException {
         GraphQLFieldDefinition.Builder builder = newFieldDefinition();
 
         String name = method.getName().replaceFirst("^(is|get|set)(.+)", "$2");
@@ -309,11 +406,7 @@ public class GraphQLAnnotations {
         GraphQLName nameAnn = method.getAnnotation(GraphQLName.class);
         builder.name(nameAnn == null ? name : nameAnn.value());
 
-        GraphQLType annotation = method.getAnnotation(GraphQLType.class);
-        if (annotation == null) {
-            annotation = new defaultGraphQLType();
-        }
-        TypeFunction typeFunction = annotation.value().newInstance();
+        TypeFunction typeFunction = typeFunction(method);
         AnnotatedType annotatedReturnType = method.getAnnotatedReturnType();
 
         TypeFunction outputTypeFunction;
@@ -323,7 +416,7 @@ public class GraphQLAnnotations {
             outputTypeFunction = typeFunction;
         }
 
-        GraphQLOutputType type = (GraphQLOutputType) outputTypeFunction.apply(method.getReturnType(), annotatedReturnType);
+        GraphQLOutputType type = (GraphQLOutputType) outputTypeFunction.apply(method.getReturnType(), annotatedReturnType, registry);
         GraphQLOutputType outputType = method.getAnnotation(NotNull.class) == null ? type : new GraphQLNonNull(type);
 
         boolean isConnection = isConnection(method, method.getReturnType(), type);
@@ -333,14 +426,15 @@ public class GraphQLAnnotations {
 
 
         List<GraphQLArgument> args = Arrays.asList(method.getParameters()).stream().
-                filter(p -> !DataFetchingEnvironment.class.isAssignableFrom(p.getType())).
+                filter(p -> !DataFetchingEnvironment.class.isAssignableFrom(p.getType()) && p.getType() != PageRequest.class &&
+                            p.getType() != DataLoader.class).
                 map(new Function<Parameter, GraphQLArgument>() {
                     @Override @SneakyThrows
                     public GraphQLArgument apply(Parameter parameter) {
                         Class<?> t = parameter.getType();
-                        graphql.schema.GraphQLType graphQLType = typeFunction.apply(t, parameter.getAnnotatedType());
+                        graphql.schema.GraphQLType graphQLType = typeFunction.apply(t, parameter.getAnnotatedType(), registry);
                         if (graphQLType instanceof GraphQLObjectType) {
-                            GraphQLInputObjectType inputObject = inputObject((GraphQLObjectType) graphQLType);
+                            GraphQLInputObjectType inputObject = inputObject((GraphQLObjectType) graphQLType, registry);
                             graphQLType = inputObject;
                         }
                         return argument(parameter, graphQLType);
@@ -384,9 +478,9 @@ public class GraphQLAnnotations {
         GraphQLDataFetcher dataFetcher = method.getAnnotation(GraphQLDataFetcher.class);
         DataFetcher actualDataFetcher;
         if (dataFetcher == null && method.getAnnotation(GraphQLBatched.class) != null) {
-            actualDataFetcher = new BatchedMethodDataFetcher(method);
+            actualDataFetcher = new BatchedMethodDataFetcher(method, registry);
         } else if (dataFetcher == null) {
-            actualDataFetcher = new MethodDataFetcher(method);
+            actualDataFetcher = new MethodDataFetcher(method, registry);
         } else {
             actualDataFetcher = dataFetcher.value().newInstance();
         }
@@ -396,7 +490,11 @@ public class GraphQLAnnotations {
         }
 
         if (isConnection) {
-            actualDataFetcher = new ConnectionDataFetcher(method.getAnnotation(GraphQLConnection.class).connection(), actualDataFetcher);
+            // pageable methods take pagination arguments, and methods without parameters can't see any
+            boolean arguments = Arrays.asList(method.getParameterTypes()).contains(PageRequest.class) ||
+                                (dataFetcher == null && method.getParameterCount() == 0);
+            GraphQLConnection connection = method.getAnnotation(GraphQLConnection.class);
+            actualDataFetcher = new ConnectionDataFetcher(connection.connection(), connection.codec(), actualDataFetcher, arguments);
         }
 
         builder.dataFetcher(actualDataFetcher);
@@ -404,22 +502,49 @@ public class GraphQLAnnotations {
         return new GraphQLFieldDefinitionWrapper(builder.build());
     }
 
+    /**
+     * Data fetcher of a connection field, which is also used by types generated at compile time
+     * @param connection connection class paginating fetched data that is not a connection already
+     * @param codec codec the connection encodes cursors with
+     * @param dataFetcher fetcher of the field's data
+     * @param arguments whether <code>dataFetcher</code> is given the pagination arguments
+     * @return data fetcher paginating the field's data
+     */
+    public static DataFetcher connectionDataFetcher(Class<? extends Connection> connection, Class<? extends CursorCodec> codec,
+                                                    DataFetcher dataFetcher, boolean arguments) {
+        return new ConnectionDataFetcher(connection, codec, dataFetcher, arguments);
+    }
+
+    /**
+     * Derive an input object type from an object type. Input types are derived once per object type and shared.
+     * @param graphQLType object type
+     * @return input object type with the same name and fields
+     */
     public static GraphQLInputObjectType inputObject(GraphQLObjectType graphQLType) {
-        GraphQLObjectType object = graphQLType;
-        return new GraphQLInputObjectType(object.getName(), object.getDescription(),
-                object.getFieldDefinitions().stream().
-                        map(field -> {
-                            GraphQLOutputType type = field.getType();
-                            GraphQLInputType inputType;
-                            if (type instanceof GraphQLObjectType) {
-                                inputType = inputObject((GraphQLObjectType) type);
-                            } else {
-                                inputType = (GraphQLInputType) type;
-                            }
-
-                            return new GraphQLInputObjectField(field.getName(), field.getDescription(), inputType, null);
-                        }).
-                        collect(Collectors.toList()));
+        return inputObject(graphQLType, TypeRegistry.getDefault());
+    }
+
+    /**
+     * Derive an input object type from an object type once per registry
+     * @param graphQLType object type
+     * @param registry registry to cache the input type in
+     * @return input object type with the same name and fields
+     */
+    public static GraphQLInputObjectType inputObject(GraphQLObjectType graphQLType, TypeRegistry registry) {
+        return registry.inputTypes.inputObject(graphQLType);
+    }
+
+    /**
+     * @param element field or method
+     * @return type function of the element's type and arguments: the one given by its {@link GraphQLType}
+     * annotation, or the default one
+     */
+    static TypeFunction typeFunction(AnnotatedElement element) throws IllegalAccessException, InstantiationException {
+        GraphQLType annotation = element.getAnnotation(GraphQLType.class);
+        if (annotation == null) {
+            annotation = new defaultGraphQLType();
+        }
+        return annotation.value().newInstance();
     }
 
     protected static GraphQLArgument argument(Parameter parameter, graphql.schema.GraphQLType t) throws IllegalAccessException, InstantiationException {
@@ -455,50 +580,112 @@ public class GraphQLAnnotations {
         }
     }
 
+    /**
+     * Fetches the data of a connection field and paginates it with a connection, unless the data is a connection
+     * already. Arguments are hidden from the actual data fetcher, unless it is known to either expect pagination
+     * arguments (the method accepts a {@link PageRequest}) or to ignore them. Data fetched asynchronously, by
+     * blocking methods for instance, is paginated once available
+     */
     private static class ConnectionDataFetcher implements DataFetcher {
-        private final Class<? extends Connection> connection;
+        private final ConnectionFactory connection;
+        private final CursorCodec codec;
         private final DataFetcher actualDataFetcher;
-        private final Constructor<Connection> constructor;
-
-        public ConnectionDataFetcher(Class<? extends Connection> connection, DataFetcher actualDataFetcher) {
-            this.connection = connection;
-            Optional<Constructor<Connection>> constructor =
-                    Arrays.asList(connection.getConstructors()).stream().
-                            filter(c -> c.getParameterCount() == 1).
-                            map(c -> (Constructor<Connection>) c).
-                            findFirst();
-            if (constructor.isPresent()) {
-                this.constructor = constructor.get();
-            } else {
-                throw new IllegalArgumentException(connection + " doesn't have a single argument constructor");
-            }
+        private final boolean arguments;
+
+        public ConnectionDataFetcher(Class<? extends Connection> connection, Class<? extends CursorCodec> codec,
+                                     DataFetcher actualDataFetcher, boolean arguments) {
+            this.connection = ConnectionFactory.of(connection);
+            this.codec = ConnectionFactory.codec(codec);
             this.actualDataFetcher = actualDataFetcher;
+            this.arguments = arguments;
         }
 
-        @Override @SneakyThrows
+        @Override
         public Object get(DataFetchingEnvironment environment) {
-            // Exclude arguments
-            DataFetchingEnvironment env = new DataFetchingEnvironment(environment.getSource(), new HashMap<>(), environment.getContext(),
-                    environment.getFields(), environment.getFieldType(), environment.getParentType(), environment.getGraphQLSchema());
-            Connection conn = constructor.newInstance(actualDataFetcher.get(env));
+            Object data = actualDataFetcher.get(arguments ? environment : new WithoutArguments(environment));
+            if (data instanceof CompletionStage) {
+                return ((CompletionStage<?>) data).thenApply(value -> paginate(value, environment));
+            }
+            return paginate(data, environment);
+        }
+
+        private Object paginate(Object data, DataFetchingEnvironment environment) {
+            Connection conn = data instanceof Connection ? (Connection) data : connection.create(data, codec);
             return conn.get(environment);
         }
     }
 
+    /**
+     * View of an environment without arguments, in the same request scope
+     */
+    private static class WithoutArguments extends RequestEnvironment {
+        private final DataFetchingEnvironment environment;
+
+        WithoutArguments(DataFetchingEnvironment environment) {
+            super(null, Collections.emptyMap(), null, null, null, null, null, RequestScope.of(environment));
+            this.environment = environment;
+        }
+
+        @Override
+        public Object getSource() {
+            return environment.getSource();
+        }
+
+        @Override
+        public Object getContext() {
+            return environment.getContext();
+        }
+
+        @Override
+        public List<graphql.language.Field> getFields() {
+            return environment.getFields();
+        }
+
+        @Override
+        public GraphQLOutputType getFieldType() {
+            return environment.getFieldType();
+        }
+
+        @Override
+        public graphql.schema.GraphQLType getParentType() {
+            return environment.getParentType();
+        }
+
+        @Override
+        public GraphQLSchema getGraphQLSchema() {
+            return environment.getGraphQLSchema();
+        }
+    }
+
+    /**
+     * Resolves an object to the most specific possible type its class is assignable to (the first declared one
+     * if there are several unrelated ones), once per class
+     */
     private static class UnionTypeResolver implements TypeResolver {
-        private final Map<Class<?>, graphql.schema.GraphQLType> types = new HashMap<>();
+        private final Map<Class<?>, graphql.schema.GraphQLType> types = new LinkedHashMap<>();
+        private final ClassValue<Optional<GraphQLObjectType>> resolved = new ClassValue<Optional<GraphQLObjectType>>() {
+            @Override
+            protected Optional<GraphQLObjectType> computeValue(Class<?> type) {
+                Class<?> match = null;
+                for (Class<?> candidate : types.keySet()) {
+                    if (candidate.isAssignableFrom(type) && (match == null || match.isAssignableFrom(candidate) && match != candidate)) {
+                        match = candidate;
+                    }
+                }
+                return match == null ? Optional.empty() : Optional.of((GraphQLObjectType) types.get(match));
+            }
+        };
 
-        public UnionTypeResolver(Class<?>[] classes) {
+        public UnionTypeResolver(Class<?>[] classes, TypeRegistry registry) {
             Arrays.asList(classes).stream().
-                    forEach(c -> types.put(c, DefaultTypeFunction.instance.apply(c, null)));
+                    forEach(c -> types.put(c, registry.getTypeFunction().apply(c, null, registry)));
         }
 
-        @Override @SneakyThrows
+        @Override
         public GraphQLObjectType getType(Object object) {
-            Optional<Map.Entry<Class<?>, graphql.schema.GraphQLType>> maybeType = types.entrySet().
-                    stream().filter(e -> e.getKey().isAssignableFrom(object.getClass())).findFirst();
-            if (maybeType.isPresent()) {
-                return (GraphQLObjectType) maybeType.get().getValue();
+            Optional<GraphQLObjectType> type = resolved.get(object.getClass());
+            if (type.isPresent()) {
+                return type.get();
             } else {
                 throw new RuntimeException("Unknown type " + object.getClass());
             }
@@ -25,6 +25,8 @@ import java.lang.annotation.Target;
  * be adhering <a href="https://facebook.github.io/relay/graphql/connections.htm">Relay Connection specification</a>
  *
  * At the moment, the only allowed type for such field is <code>List&lt;?&gt;</code>
+ *
+ * Methods can accept a {@link PageRequest} to fetch only the requested page, returning a {@link PageResult}
  */
 @Target({ElementType.FIELD, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
@@ -36,6 +38,14 @@ public @interface GraphQLConnection {
      */
     Class<? extends Connection> connection() default DispatchingConnection.class;
 
+    /**
+     * Codec cursors of the field are encoded with, by connections that have a public constructor taking the data
+     * and a {@link CursorCodec} (the built-in ones do), and decoded with by {@link PageRequest}s. It is created once
+     * with its no-argument constructor
+     * @return
+     */
+    Class<? extends CursorCodec> codec() default OffsetCursorCodec.class;
+
     /**
      * By default, wrapped type's name is used for naming TypeConnection, but can be overridden
      * using this property
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.*;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLType;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Derives input object types from object types, once per object type.
+ *
+ * Fields of object types are converted recursively, including the ones wrapped in lists and non-null types.
+ * Type references can't be used in input types, so an input type is created before its fields are derived and a
+ * field referring back to an object type that is still being converted, directly or through a
+ * {@link GraphQLTypeReference}, gets that input type right away. Other type references are resolved by name with
+ * the types of the registry. Input types referring to other types that were still being derived at the time are
+ * not cached.
+ *
+ * Input types are associated with object types by identity and held as long as their object types are.
+ */
+class InputTypeCache {
+
+    private final TypeCache types;
+    private volatile ContextScope<GraphQLInputObjectType> inputObjects = new ContextScope<>();
+
+    InputTypeCache(TypeCache types) {
+        this.types = types;
+    }
+
+    private static class Frame {
+        private final DerivedInputObjectType type;
+        private boolean complete = true;
+
+        private Frame(DerivedInputObjectType type) {
+            this.type = type;
+        }
+    }
+
+    /**
+     * Input object type whose fields are defined once they have been derived, so that they can refer to the type
+     */
+    private static class DerivedInputObjectType extends GraphQLInputObjectType {
+        private volatile Fields fields = new Fields(Collections.emptyList());
+
+        private DerivedInputObjectType(String name, String description) {
+            super(name, description, Collections.emptyList());
+        }
+
+        private void define(List<GraphQLInputObjectField> fields) {
+            this.fields = new Fields(fields);
+        }
+
+        @Override
+        public List<GraphQLInputObjectField> getFields() {
+            return fields.list;
+        }
+
+        @Override
+        public GraphQLInputObjectField getField(String name) {
+            return fields.byName.get(name);
+        }
+    }
+
+    /**
+     * Fields of a derived type, listed once when they are defined
+     */
+    private static class Fields {
+        private final List<GraphQLInputObjectField> list;
+        private final Map<String, GraphQLInputObjectField> byName = new LinkedHashMap<>();
+
+        private Fields(List<GraphQLInputObjectField> fields) {
+            list = Collections.unmodifiableList(new ArrayList<>(fields));
+            fields.forEach(field -> byName.put(field.getName(), field));
+        }
+    }
+
+    GraphQLInputObjectType inputObject(GraphQLObjectType object) {
+        return (GraphQLInputObjectType) inputType(object, new ArrayDeque<>());
+    }
+
+    /**
+     * Drops all derived input types, for example after a type function has been registered
+     */
+    void clear() {
+        inputObjects = new ContextScope<>();
+    }
+
+    private GraphQLInputType inputType(GraphQLType type, Deque<Frame> building) {
+        if (type instanceof GraphQLList) {
+            return new GraphQLList(inputType(((GraphQLList) type).getWrappedType(), building));
+        }
+        if (type instanceof GraphQLNonNull) {
+            return new GraphQLNonNull(inputType(((GraphQLNonNull) type).getWrappedType(), building));
+        }
+        if (type instanceof GraphQLTypeReference) {
+            GraphQLInputObjectType derived = derived(type.getName(), building);
+            if (derived != null) {
+                return derived;
+            }
+            GraphQLType resolved = types.get(type.getName());
+            if (resolved == null) {
+                throw new IllegalArgumentException("Type " + type.getName() + " is still being built, no input type can be derived from it");
+            }
+            return inputType(resolved, building);
+        }
+        if (!(type instanceof GraphQLObjectType)) {
+            return (GraphQLInputType) type;
+        }
+        GraphQLObjectType object = (GraphQLObjectType) type;
+        ContextScope<GraphQLInputObjectType> inputObjects = this.inputObjects;
+        GraphQLInputObjectType cached = inputObjects.get(object);
+        if (cached != null) {
+            return cached;
+        }
+        GraphQLInputObjectType derived = derived(object.getName(), building);
+        if (derived != null) {
+            return derived;
+        }
+
+        Frame frame = new Frame(new DerivedInputObjectType(object.getName(), object.getDescription()));
+        building.push(frame);
+        try {
+            frame.type.define(object.getFieldDefinitions().stream().
+                    map(field -> new GraphQLInputObjectField(field.getName(), field.getDescription(),
+                            inputType(field.getType(), building), null)).
+                    collect(Collectors.toList()));
+        } finally {
+            building.pop();
+        }
+        if (!frame.complete) {
+            return frame.type;
+        }
+        GraphQLInputObjectType canonical = inputObjects.putIfAbsent(object, frame.type);
+        return canonical == null ? frame.type : canonical;
+    }
+
+    /**
+     * @return input type of an object type that is still being converted, whose fields are not defined yet, or null
+     */
+    private static GraphQLInputObjectType derived(String name, Deque<Frame> building) {
+        if (building.stream().noneMatch(frame -> frame.type.getName().equals(name))) {
+            return null;
+        }
+        for (Frame frame : building) {
+            if (frame.type.getName().equals(name)) {
+                return frame.type;
+            }
+            // refers to a type that isn't complete yet
+            frame.complete = false;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Supplies receivers for methods annotated with {@link GraphQLInvokeDetached}.
+ *
+ * Providers are registered per class with {@link GraphQLAnnotations#registerInstanceProvider(Class, InstanceProvider)}
+ * and are looked up once, when the field is built. Classes without a registered provider get a new
+ * instance for every invocation.
+ *
+ * @see SingletonInstanceProvider
+ * @see ContextInstanceProvider
+ * @see PooledInstanceProvider
+ */
+public interface InstanceProvider {
+
+    /**
+     * @param environment environment of the field being fetched
+     * @return instance to invoke the detached method on
+     */
+    Object getInstance(DataFetchingEnvironment environment) throws Exception;
+
+    /**
+     * Called once the detached method returns (or throws), or once the {@link java.util.concurrent.CompletionStage}
+     * it returns completes
+     * @param instance instance previously obtained through {@link #getInstance(DataFetchingEnvironment)}
+     */
+    default void release(Object instance) {
+    }
+}
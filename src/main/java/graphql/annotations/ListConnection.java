@@ -14,12 +14,113 @@
  */
 package graphql.annotations;
 
-import graphql.relay.SimpleListConnection;
+import graphql.relay.Edge;
+import graphql.relay.PageInfo;
+import graphql.schema.DataFetchingEnvironment;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Connection over a list. Page bounds are computed from the cursors and <code>first</code>/<code>last</code>,
+ * and the edges are a view of the page creating each edge when it is read, so a page costs the same whatever
+ * the size of the list. Lists without {@link RandomAccess} are copied up to the end of the page.
+ */
+public class ListConnection implements Connection {
+
+    private final List<?> data;
+    private final CursorCodec codec;
 
-public class ListConnection extends SimpleListConnection implements Connection {
     public ListConnection(List<?> data) {
-        super(data);
+        this(data, OffsetCursorCodec.INSTANCE);
+    }
+
+    public ListConnection(List<?> data, CursorCodec codec) {
+        this.data = data;
+        this.codec = codec;
+    }
+
+    @Override
+    public CursorCodec getCursorCodec() {
+        return codec;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        int size = data.size();
+        // the window is the part of the list between the cursors; an element's cursor is its index + 1
+        int begin = Math.min(getOffsetFromCursor(environment.<String>getArgument("after"), 0), size);
+        int end = Math.min(getOffsetFromCursor(environment.<String>getArgument("before"), size + 1) - 1, size);
+        if (end <= begin) {
+            return emptyConnection();
+        }
+
+        Integer first = environment.<Integer>getArgument("first");
+        Integer last = environment.<Integer>getArgument("last");
+
+        int from = begin;
+        int to = end;
+        if (first != null) {
+            to = from + Math.min(Math.max(0, first), to - from);
+        }
+        if (last != null) {
+            from = to - Math.min(Math.max(0, last), to - from);
+        }
+        if (to == from) {
+            return emptyConnection();
+        }
+
+        List<?> page = data instanceof RandomAccess ? data.subList(from, to) : new ArrayList<>(data.subList(from, to));
+        List<Edge> edges = new Edges(page, from, getCursorCodec());
+
+        PageInfo pageInfo = new PageInfo();
+        pageInfo.setStartCursor(edges.get(0).getCursor());
+        pageInfo.setEndCursor(edges.get(edges.size() - 1).getCursor());
+        pageInfo.setHasPreviousPage(from > begin);
+        pageInfo.setHasNextPage(to < end);
+
+        graphql.relay.Connection connection = new graphql.relay.Connection();
+        connection.setEdges(edges);
+        connection.setPageInfo(pageInfo);
+
+        return connection;
+    }
+
+    private graphql.relay.Connection emptyConnection() {
+        graphql.relay.Connection connection = new graphql.relay.Connection();
+        connection.setPageInfo(new PageInfo());
+        return connection;
+    }
+
+    private int getOffsetFromCursor(String cursor, int defaultValue) {
+        if (cursor == null) return defaultValue;
+        return getCursorCodec().decode(cursor);
+    }
+
+    /**
+     * Edges of a page, created when they are read
+     */
+    private static class Edges extends AbstractList<Edge> implements RandomAccess {
+        private final List<?> page;
+        private final int offset;
+        private final CursorCodec codec;
+
+        private Edges(List<?> page, int offset, CursorCodec codec) {
+            this.page = page;
+            this.offset = offset;
+            this.codec = codec;
+        }
+
+        @Override
+        public Edge get(int index) {
+            return new Edge(page.get(index), new OffsetCursor(codec, offset + index + 1));
+        }
+
+        @Override
+        public int size() {
+            return page.size();
+        }
     }
 }
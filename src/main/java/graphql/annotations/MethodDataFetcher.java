@@ -17,60 +17,248 @@ package graphql.annotations;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLTypeReference;
 import lombok.SneakyThrows;
 
 import java.lang.reflect.*;
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 class MethodDataFetcher implements DataFetcher {
     private final Method method;
+    private final MethodInvoker invoker;
+    private final ArgumentBinding[] bindings;
+    private final boolean isStatic;
+    private final InstanceProvider instanceProvider;
+    private final boolean blocking;
+    private final boolean memoized;
 
     public MethodDataFetcher(Method method) {
+        this(method, TypeRegistry.getDefault());
+    }
+
+    /**
+     * @param method method to invoke
+     * @param registry registry to look argument types and instance providers up in
+     */
+    public MethodDataFetcher(Method method, TypeRegistry registry) {
         this.method = method;
+        this.invoker = MethodInvoker.of(method);
+        this.bindings = bindings(method, registry);
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.instanceProvider = !isStatic && method.getAnnotation(GraphQLInvokeDetached.class) != null ?
+                registry.instanceProvider(method.getDeclaringClass()) : null;
+        GraphQLBlocking blocking = method.getAnnotation(GraphQLBlocking.class);
+        if (blocking == null) {
+            blocking = method.getDeclaringClass().getAnnotation(GraphQLBlocking.class);
+        }
+        this.blocking = blocking != null && blocking.value();
+        this.memoized = method.getAnnotation(GraphQLMemoized.class) != null;
     }
 
-    @SneakyThrows
     @Override
     public Object get(DataFetchingEnvironment environment) {
+        RequestScope scope = blocking || memoized ? RequestScope.of(environment) : null;
+        if (memoized && scope != null) {
+            return scope.memoize(new Invocation(method, environment.getSource(), environment.getArguments()),
+                    () -> fetch(environment, scope));
+        }
+        return fetch(environment, scope);
+    }
+
+    private Object fetch(DataFetchingEnvironment environment, RequestScope scope) {
+        Executor executor = scope == null || !blocking ? null : scope.getBlockingExecutor();
+        if (executor != null) {
+            return scope.batch(() -> future(invoke(environment)), executor);
+        }
+        return await(environment, invoke(environment));
+    }
+
+    @SneakyThrows
+    private Object invoke(DataFetchingEnvironment environment) {
         try {
             Object obj;
 
-            if (Modifier.isStatic(method.getModifiers())) {
+            if (isStatic) {
                 obj = null;
-            } else if (method.getAnnotation(GraphQLInvokeDetached.class) == null) {
+            } else if (instanceProvider == null) {
                 obj = environment.getSource();
                 if (obj == null) {
                     return null;
                 }
             } else {
-                obj = method.getDeclaringClass().newInstance();
+                return invokeDetached(environment);
             }
-            return method.invoke(obj, invocationArgs(environment));
+            return invoker.invoke(obj, invocationArgs(environment));
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Invokes the method on an instance of the provider, which is released once the method returns, or once the
+     * stage it returns completes
+     */
+    private Object invokeDetached(DataFetchingEnvironment environment) throws Exception {
+        Object instance = instanceProvider.getInstance(environment);
+        boolean releaseNow = true;
+        try {
+            Object result = invoker.invoke(instance, invocationArgs(environment));
+            if (result instanceof CompletionStage) {
+                releaseNow = false;
+                return ((CompletionStage<?>) result).whenComplete((value, e) -> instanceProvider.release(instance));
+            }
+            return result;
+        } finally {
+            if (releaseNow) {
+                instanceProvider.release(instance);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Object> future(Object result) {
+        return result instanceof CompletionStage ? ((CompletionStage<Object>) result).toCompletableFuture() :
+               CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * Futures are awaited by {@link EnhancedExecutionStrategy}, other execution strategies get their values
+     */
+    @SneakyThrows
+    private static Object await(DataFetchingEnvironment environment, Object result) {
+        if (!(result instanceof CompletionStage) || RequestScope.of(environment) != null) {
+            return result;
+        }
+        try {
+            return ((CompletionStage<?>) result).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            throw e.getCause() == null ? e : e.getCause();
+        }
+    }
+
     @SneakyThrows
     private Object[] invocationArgs(DataFetchingEnvironment environment) {
-        List result = new ArrayList();
-        Iterator envArgs = environment.getArguments().values().iterator();
-        TypeFunction typeFunction = new DefaultTypeFunction();
-        for (Parameter p : method.getParameters()) {
+        Object[] result = new Object[bindings.length];
+        Map<String, Object> arguments = environment.getArguments();
+        for (int i = 0; i < bindings.length; i++) {
+            result[i] = bindings[i].bind(environment, arguments);
+        }
+        return result;
+    }
+
+    /**
+     * Computes, once per method, how each parameter slot is filled: with the environment itself,
+     * with the page request of a connection field, with the request's data loader, with an argument looked up
+     * by its GraphQL name or with an input object constructed from it.
+     */
+    @SneakyThrows
+    private static ArgumentBinding[] bindings(Method method, TypeRegistry registry) {
+        // arguments are typed by the same function as in the field's schema
+        TypeFunction typeFunction = GraphQLAnnotations.typeFunction(method);
+        Parameter[] parameters = method.getParameters();
+        ArgumentBinding[] bindings = new ArgumentBinding[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter p = parameters[i];
             Class<?> paramType = p.getType();
             if (DataFetchingEnvironment.class.isAssignableFrom(paramType)) {
-                result.add(environment);
+                bindings[i] = (environment, arguments) -> environment;
                 continue;
             }
-            graphql.schema.GraphQLType graphQLType = typeFunction.apply(paramType, p.getAnnotatedType());
-            if (graphQLType instanceof GraphQLObjectType) {
-                Constructor<?> constructor = paramType.getConstructor(HashMap.class);
-                result.add(constructor.newInstance(envArgs.next()));
-
+            if (paramType == PageRequest.class) {
+                GraphQLConnection connection = method.getAnnotation(GraphQLConnection.class);
+                CursorCodec codec = connection == null ? OffsetCursorCodec.INSTANCE : ConnectionFactory.codec(connection.codec());
+                bindings[i] = (environment, arguments) -> PageRequest.of(environment, codec);
+                continue;
+            }
+            if (paramType == DataLoader.class) {
+                GraphQLBatchLoader batchLoader = p.getAnnotation(GraphQLBatchLoader.class);
+                if (batchLoader == null) {
+                    throw new IllegalArgumentException(method + ": data loader parameters should be annotated with @GraphQLBatchLoader");
+                }
+                InstanceProvider provider = registry.instanceProvider(batchLoader.value());
+                bindings[i] = (environment, arguments) -> DataLoader.of(environment, batchLoader.value(), provider);
+                continue;
+            }
+            GraphQLName name = p.getAnnotation(GraphQLName.class);
+            String argumentName = name == null ? p.getName() : name.value();
+            graphql.schema.GraphQLType graphQLType = typeFunction.apply(paramType, p.getAnnotatedType(), registry);
+            if (graphQLType instanceof GraphQLObjectType || graphQLType instanceof GraphQLTypeReference) {
+                bindings[i] = new InputObjectBinding(argumentName, paramType);
             } else {
-                result.add(envArgs.next());
+                bindings[i] = (environment, arguments) -> arguments.get(argumentName);
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Invocation of a method on a source object, which is compared by identity, with the same arguments
+     */
+    private static class Invocation {
+        private final Method method;
+        private final Object source;
+        private final Map<String, Object> arguments;
+
+        Invocation(Method method, Object source, Map<String, Object> arguments) {
+            this.method = method;
+            this.source = source;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Invocation)) {
+                return false;
+            }
+            Invocation that = (Invocation) o;
+            return method.equals(that.method) && source == that.source && arguments.equals(that.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * method.hashCode() + System.identityHashCode(source)) + arguments.hashCode();
+        }
+    }
+
+    private interface ArgumentBinding {
+        Object bind(DataFetchingEnvironment environment, Map<String, Object> arguments) throws Exception;
+    }
+
+    private static class InputObjectBinding implements ArgumentBinding {
+        private final String argumentName;
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+
+        InputObjectBinding(String argumentName, Class<?> type) {
+            this.argumentName = argumentName;
+            this.type = type;
+            Constructor<?> constructor;
+            try {
+                constructor = type.getConstructor(HashMap.class);
+            } catch (NoSuchMethodException e) {
+                constructor = null;
+            }
+            if (constructor != null) {
+                try {
+                    constructor.setAccessible(true);
+                } catch (RuntimeException e) {
+                    // rely on regular access checks
+                }
+            }
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object bind(DataFetchingEnvironment environment, Map<String, Object> arguments) throws Exception {
+            if (constructor == null) {
+                throw new NoSuchMethodException(type.getName() + ".<init>(java.util.HashMap)");
             }
+            return constructor.newInstance(arguments.get(argumentName));
         }
-        return result.toArray();
     }
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokes a method that has been bound once, at schema build time.
+ *
+ * {@link #of(Method)} prefers a direct {@link MethodHandle} adapted to a
+ * <code>(Object, Object[])Object</code> shape and falls back to {@link Method#invoke(Object, Object...)}
+ * when the method can't be unreflected. Both implementations report exceptions thrown by the method
+ * itself as {@link InvocationTargetException}, just like reflection does, except for {@link Error}s, which are
+ * rethrown as is. Invalid receivers and arguments are reported by reflection.
+ */
+interface MethodInvoker {
+
+    /**
+     * @param target receiver, ignored for static methods
+     * @param args   invocation arguments, in declaration order
+     * @return method's result
+     */
+    Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException;
+
+    static MethodInvoker of(Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            // inaccessible (for example, not exported by its module); rely on regular access checks
+        }
+        try {
+            return new HandleInvoker(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return new ReflectiveInvoker(method);
+        }
+    }
+
+    class HandleInvoker implements MethodInvoker {
+        private final Method method;
+        private final MethodHandle handle;
+        private final boolean isStatic;
+        private final Class<?>[] parameterTypes;
+        private final Class<?>[] boxedTypes;
+
+        HandleInvoker(Method method) throws IllegalAccessException {
+            this.method = method;
+            this.isStatic = Modifier.isStatic(method.getModifiers());
+            this.parameterTypes = method.getParameterTypes();
+            this.boxedTypes = MethodType.methodType(void.class, parameterTypes).wrap().parameterArray();
+            MethodHandle mh = MethodHandles.lookup().unreflect(method);
+            int parameterCount = method.getParameterCount();
+            if (Modifier.isStatic(method.getModifiers())) {
+                mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            }
+            handle = mh.asType(MethodType.genericMethodType(parameterCount + 1))
+                       .asSpreader(Object[].class, parameterCount);
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+            if (!accepts(target, args)) {
+                // let reflection convert the arguments or report them
+                return ReflectiveInvoker.invoke(method, target, args);
+            }
+            try {
+                return (Object) handle.invokeExact(target, args);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        /**
+         * @return whether the handle can be invoked without failing to cast the receiver or an argument
+         */
+        private boolean accepts(Object target, Object[] args) {
+            if (!isStatic && !method.getDeclaringClass().isInstance(target)) {
+                return false;
+            }
+            if (args.length != parameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] == null ? parameterTypes[i].isPrimitive() : !boxedTypes[i].isInstance(args[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    class ReflectiveInvoker implements MethodInvoker {
+        private final Method method;
+
+        ReflectiveInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+            return invoke(method, target, args);
+        }
+
+        static Object invoke(Method method, Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.relay.ConnectionCursor;
+
+/**
+ * Cursor of an edge at an offset, encoded only when its value is needed, which for edges that are never
+ * serialized is never
+ */
+class OffsetCursor extends ConnectionCursor {
+
+    private final CursorCodec codec;
+    private final int offset;
+    private String value;
+
+    OffsetCursor(CursorCodec codec, int offset) {
+        super(null);
+        this.codec = codec;
+        this.offset = offset;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String getValue() {
+        String value = this.value;
+        if (value == null) {
+            value = codec.encode(offset);
+            this.value = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof OffsetCursor && ((OffsetCursor) o).codec == codec) {
+            return ((OffsetCursor) o).offset == offset;
+        }
+        return o instanceof ConnectionCursor && getValue().equals(((ConnectionCursor) o).getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        return getValue().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import lombok.SneakyThrows;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Default cursor codec: an offset is written as a varint (7 bits per byte, least significant group first) and
+ * encoded with URL-safe base64 without padding, so small offsets take two or three characters.
+ *
+ * Given a key, the varint is followed by a truncated HMAC-SHA256 of it, and cursors that weren't produced with the
+ * same key are rejected.
+ */
+public class OffsetCursorCodec implements CursorCodec {
+
+    static final OffsetCursorCodec INSTANCE = new OffsetCursorCodec();
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int TAG_LENGTH = 8;
+    private static final int MAX_VARINT_LENGTH = 5;
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * Creates a codec producing plain offsets
+     */
+    public OffsetCursorCodec() {
+        macs = null;
+    }
+
+    /**
+     * Creates a codec producing signed offsets
+     * @param key HMAC key
+     */
+    public OffsetCursorCodec(byte[] key) {
+        SecretKeySpec spec = new SecretKeySpec(key.clone(), ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> mac(spec));
+    }
+
+    @SneakyThrows
+    private static Mac mac(SecretKeySpec spec) {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(spec);
+        return mac;
+    }
+
+    @Override
+    public String encode(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("negative offset " + offset);
+        }
+        byte[] bytes = new byte[varintLength(offset) + (macs == null ? 0 : TAG_LENGTH)];
+        int length = 0;
+        int value = offset;
+        while ((value & ~0x7f) != 0) {
+            bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+        if (macs != null) {
+            System.arraycopy(tag(bytes, length), 0, bytes, length, TAG_LENGTH);
+        }
+        return encoder.encodeToString(bytes);
+    }
+
+    @Override
+    public int decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = decoder.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        int offset = 0;
+        int length = 0;
+        while (true) {
+            if (length == bytes.length || length == MAX_VARINT_LENGTH) {
+                throw invalid(cursor);
+            }
+            byte b = bytes[length];
+            offset |= (b & 0x7f) << (7 * length);
+            length++;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (offset < 0 || length != varintLength(offset)) {
+            throw invalid(cursor);
+        }
+        if (macs == null) {
+            if (length != bytes.length) {
+                throw invalid(cursor);
+            }
+        } else {
+            byte[] tag = new byte[bytes.length - length];
+            System.arraycopy(bytes, length, tag, 0, tag.length);
+            if (tag.length != TAG_LENGTH || !MessageDigest.isEqual(tag, tag(bytes, length))) {
+                throw invalid(cursor);
+            }
+        }
+        return offset;
+    }
+
+    private byte[] tag(byte[] bytes, int length) {
+        Mac mac = macs.get();
+        mac.update(bytes, 0, length);
+        byte[] tag = mac.doFinal();
+        byte[] truncated = new byte[TAG_LENGTH];
+        System.arraycopy(tag, 0, truncated, 0, TAG_LENGTH);
+        return truncated;
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value & ~0x7f) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("invalid cursor " + cursor);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Pagination arguments of a connection field. A method of a {@link GraphQLConnection} field can declare a parameter
+ * of this type to receive them, and fetch only the requested page, returning it as a {@link PageResult}.
+ *
+ * Offsets are those of {@link PageResult#offset} results: the cursor of an element is the number of elements
+ * up to and including it, so that <code>getAfterOffset()</code> elements are to be skipped.
+ */
+public class PageRequest {
+
+    private final Integer first;
+    private final String after;
+    private final Integer last;
+    private final String before;
+    private final CursorCodec codec;
+
+    public PageRequest(Integer first, String after, Integer last, String before) {
+        this(first, after, last, before, OffsetCursorCodec.INSTANCE);
+    }
+
+    /**
+     * @param codec codec to decode offset cursors with
+     */
+    public PageRequest(Integer first, String after, Integer last, String before, CursorCodec codec) {
+        this.first = first;
+        this.after = after;
+        this.last = last;
+        this.before = before;
+        this.codec = codec;
+    }
+
+    /**
+     * @param environment environment of a connection field
+     * @return pagination arguments of the field
+     */
+    public static PageRequest of(DataFetchingEnvironment environment) {
+        return of(environment, OffsetCursorCodec.INSTANCE);
+    }
+
+    /**
+     * @param environment environment of a connection field
+     * @param codec codec the field's connection encodes cursors with
+     * @return pagination arguments of the field
+     */
+    public static PageRequest of(DataFetchingEnvironment environment, CursorCodec codec) {
+        return new PageRequest(environment.<Integer>getArgument("first"), environment.<String>getArgument("after"),
+                environment.<Integer>getArgument("last"), environment.<String>getArgument("before"), codec);
+    }
+
+    public Integer getFirst() {
+        return first;
+    }
+
+    /**
+     * @return cursor as sent by the client, for example a key for keyset pagination
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public Integer getLast() {
+        return last;
+    }
+
+    /**
+     * @return cursor as sent by the client, for example a key for keyset pagination
+     */
+    public String getBefore() {
+        return before;
+    }
+
+    /**
+     * @return offset encoded in the <code>after</code> cursor, 0 if there is none
+     * @throws IllegalArgumentException if the cursor is not an offset cursor
+     */
+    public int getAfterOffset() {
+        return after == null ? 0 : codec.decode(after);
+    }
+
+    /**
+     * @return offset encoded in the <code>before</code> cursor, {@link Integer#MAX_VALUE} if there is none
+     * @throws IllegalArgumentException if the cursor is not an offset cursor
+     */
+    public int getBeforeOffset() {
+        return before == null ? Integer.MAX_VALUE : codec.decode(before);
+    }
+
+    /**
+     * @return number of elements to fetch after {@link #getAfterOffset()} to fill a forward page and to find out
+     * whether there is a next one: <code>first + 1</code>, bounded by the <code>before</code> cursor, whose element
+     * is excluded
+     */
+    public int getLimit() {
+        long window = before == null ? Long.MAX_VALUE : (long) getBeforeOffset() - getAfterOffset() - 1;
+        long limit = first == null ? window : Math.min(window, (long) first + 1);
+        return (int) Math.max(0, Math.min(limit, Integer.MAX_VALUE));
+    }
+}
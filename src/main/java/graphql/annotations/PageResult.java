@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a connection fetched by the application itself, typically for a {@link PageRequest}.
+ * {@link PageResultConnection} turns it into a connection as is, without slicing it any further.
+ *
+ * Elements are identified either by their offsets or, for keyset pagination, by cursors derived from them. A page
+ * result is also a list of its elements, so a field returning it can be used as a plain list as well.
+ *
+ * @param <T> element type
+ */
+public class PageResult<T> extends AbstractList<T> {
+
+    private final List<T> items;
+    private final int offset;
+    private final Function<? super T, String> cursor;
+    private final boolean hasPreviousPage;
+    private final boolean hasNextPage;
+
+    private PageResult(List<T> items, int offset, Function<? super T, String> cursor, boolean hasPreviousPage, boolean hasNextPage) {
+        this.items = items;
+        this.offset = offset;
+        this.cursor = cursor;
+        this.hasPreviousPage = hasPreviousPage;
+        this.hasNextPage = hasNextPage;
+    }
+
+    /**
+     * @param items elements of the page
+     * @param offset number of elements before the page
+     * @param hasPreviousPage whether there are elements before the page
+     * @param hasNextPage whether there are elements after the page
+     * @return page whose cursors are offsets
+     */
+    public static <T> PageResult<T> offset(List<T> items, int offset, boolean hasPreviousPage, boolean hasNextPage) {
+        return new PageResult<>(items, offset, null, hasPreviousPage, hasNextPage);
+    }
+
+    /**
+     * @param items elements of the page
+     * @param cursor cursor of an element, such as its sort key. Only called for cursors that are serialized
+     * @param hasPreviousPage whether there are elements before the page
+     * @param hasNextPage whether there are elements after the page
+     * @return page whose cursors are derived from its elements
+     */
+    public static <T> PageResult<T> keyset(List<T> items, Function<? super T, String> cursor, boolean hasPreviousPage, boolean hasNextPage) {
+        return new PageResult<>(items, 0, cursor, hasPreviousPage, hasNextPage);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return number of elements before the page, for offset pages
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return function deriving cursors from elements for keyset pages, null for offset pages
+     */
+    public Function<? super T, String> getCursor() {
+        return cursor;
+    }
+
+    public boolean hasPreviousPage() {
+        return hasPreviousPage;
+    }
+
+    public boolean hasNextPage() {
+        return hasNextPage;
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.relay.ConnectionCursor;
+import graphql.relay.Edge;
+import graphql.relay.PageInfo;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Connection over a {@link PageResult}, which is already the requested page: pagination arguments are not
+ * applied again
+ */
+public class PageResultConnection implements Connection {
+
+    private final PageResult<?> result;
+    private final CursorCodec codec;
+
+    public PageResultConnection(PageResult<?> result) {
+        this(result, OffsetCursorCodec.INSTANCE);
+    }
+
+    /**
+     * @param codec codec to encode offset cursors with
+     */
+    public PageResultConnection(PageResult<?> result, CursorCodec codec) {
+        this.result = result;
+        this.codec = codec;
+    }
+
+    @Override
+    public CursorCodec getCursorCodec() {
+        return codec;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment environment) {
+        graphql.relay.Connection connection = new graphql.relay.Connection();
+        PageInfo pageInfo = new PageInfo();
+        pageInfo.setHasPreviousPage(result.hasPreviousPage());
+        pageInfo.setHasNextPage(result.hasNextPage());
+        connection.setPageInfo(pageInfo);
+        List<Edge> edges = edges(result, getCursorCodec());
+        connection.setEdges(edges);
+        if (!edges.isEmpty()) {
+            pageInfo.setStartCursor(edges.get(0).getCursor());
+            pageInfo.setEndCursor(edges.get(edges.size() - 1).getCursor());
+        }
+        return connection;
+    }
+
+    private static <T> List<Edge> edges(PageResult<T> result, CursorCodec codec) {
+        List<T> items = result.getItems();
+        List<Edge> edges = new ArrayList<>(items.size());
+        int offset = result.getOffset();
+        for (T item : items) {
+            offset++;
+            edges.add(new Edge(item, result.getCursor() == null ? new OffsetCursor(codec, offset) :
+                    new KeyCursor<>(item, result.getCursor())));
+        }
+        return edges;
+    }
+
+    /**
+     * Cursor derived from an element when its value is needed
+     */
+    private static class KeyCursor<T> extends ConnectionCursor {
+        private final T item;
+        private final Function<? super T, String> cursor;
+        private String value;
+
+        KeyCursor(T item, Function<? super T, String> cursor) {
+            super(null);
+            this.item = item;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public String getValue() {
+            if (value == null) {
+                value = cursor.apply(item);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ConnectionCursor && getValue().equals(((ConnectionCursor) o).getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getValue();
+        }
+    }
+}
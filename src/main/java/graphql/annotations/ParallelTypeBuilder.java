@@ -0,0 +1,258 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLType;
+import lombok.SneakyThrows;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds object, interface and union types for a set of root classes and everything reachable from them
+ * in parallel.
+ *
+ * The reachable class graph is discovered first and split into strongly connected components. Components
+ * are built on the pool as soon as all components they refer to are built, so independent parts of a large
+ * model are processed concurrently while mutually recursive classes are still built together on one thread,
+ * resolving their cycles with {@link graphql.schema.GraphQLTypeReference}s as usual. Built types end up in
+ * the registry's cache, where {@link GraphQLAnnotations#object(Class, TypeRegistry)} and
+ * {@link GraphQLAnnotations#iface(Class, TypeRegistry)} find them.
+ */
+public class ParallelTypeBuilder {
+
+    private final TypeRegistry registry;
+    private final ForkJoinPool pool;
+
+    public ParallelTypeBuilder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelTypeBuilder(ForkJoinPool pool) {
+        this(TypeRegistry.getDefault(), pool);
+    }
+
+    public ParallelTypeBuilder(TypeRegistry registry, ForkJoinPool pool) {
+        this.registry = registry;
+        this.pool = pool;
+    }
+
+    /**
+     * @param roots classes to build
+     * @return types of the roots and of all classes reachable from them
+     */
+    @SneakyThrows
+    public Map<Class<?>, GraphQLType> build(Class<?>... roots) {
+        Graph graph = new Graph();
+        for (Class<?> root : roots) {
+            graph.discover(root);
+        }
+        List<List<Class<?>>> components = graph.components();
+
+        Map<Class<?>, CompletableFuture<Void>> built = new HashMap<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(components.size());
+        // components are listed in reverse topological order, so dependencies are always scheduled first
+        for (List<Class<?>> component : components) {
+            CompletableFuture<?>[] dependencies = component.stream()
+                    .flatMap(klass -> graph.edges.get(klass).stream())
+                    .filter(klass -> !component.contains(klass))
+                    .map(built::get)
+                    .distinct()
+                    .toArray(CompletableFuture<?>[]::new);
+            // the member the search entered the component through is built first, so the types referring to the
+            // component from outside reach all of its members without going through a type reference
+            List<Class<?>> order = new ArrayList<>(component);
+            Collections.reverse(order);
+            CompletableFuture<Void> task = CompletableFuture.allOf(dependencies)
+                    .thenRunAsync(() -> order.forEach(this::buildType), pool);
+            component.forEach(klass -> built.put(klass, task));
+            tasks.add(task);
+        }
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[tasks.size()])).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+
+        Map<Class<?>, GraphQLType> types = new LinkedHashMap<>();
+        for (List<Class<?>> component : components) {
+            for (Class<?> klass : component) {
+                types.put(klass, buildType(klass));
+            }
+        }
+        return types;
+    }
+
+    @SneakyThrows
+    private GraphQLType buildType(Class<?> klass) {
+        return klass.isInterface() ? GraphQLAnnotations.iface(klass, registry) : GraphQLAnnotations.object(klass, registry);
+    }
+
+    /**
+     * Classes mapped to object, interface or union types and references between them, following the same
+     * rules {@link GraphQLAnnotations} uses to build their fields
+     */
+    private class Graph {
+        private final Map<Class<?>, Set<Class<?>>> edges = new LinkedHashMap<>();
+
+        private void discover(Class<?> root) {
+            Deque<Class<?>> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Class<?> klass = queue.poll();
+                if (edges.containsKey(klass)) {
+                    continue;
+                }
+                Set<Class<?>> references = references(klass);
+                edges.put(klass, references);
+                queue.addAll(references);
+            }
+        }
+
+        private Set<Class<?>> references(Class<?> klass) {
+            Set<Class<?>> result = new LinkedHashSet<>();
+            if (klass.isInterface()) {
+                GraphQLUnion union = klass.getAnnotation(GraphQLUnion.class);
+                if (union != null) {
+                    if (klass.getAnnotation(graphql.annotations.GraphQLType.class) == null) {
+                        for (Class<?> possibleType : union.possibleTypes()) {
+                            add(possibleType, result);
+                        }
+                    }
+                    return result;
+                }
+                for (Method method : ClassIndex.of(klass).fieldMethods()) {
+                    add(method, result);
+                }
+                return result;
+            }
+
+            for (Method method : ClassIndex.of(klass).fieldMethods()) {
+                add(method, result);
+            }
+            for (Field field : ClassIndex.of(klass).fields()) {
+                if (field.getAnnotation(graphql.annotations.GraphQLType.class) == null) {
+                    add(field.getGenericType(), result);
+                }
+            }
+            result.addAll(ClassIndex.of(klass).interfaces());
+            return result;
+        }
+
+        private void add(Method method, Set<Class<?>> result) {
+            if (method.getAnnotation(graphql.annotations.GraphQLType.class) != null) {
+                // custom type functions decide on their own which types they use
+                return;
+            }
+            add(method.getGenericReturnType(), result);
+            for (Parameter parameter : method.getParameters()) {
+                if (!DataFetchingEnvironment.class.isAssignableFrom(parameter.getType()) && parameter.getType() != PageRequest.class &&
+                    parameter.getType() != DataLoader.class) {
+                    add(parameter.getParameterizedType(), result);
+                }
+            }
+        }
+
+        private void add(Type type, Set<Class<?>> result) {
+            if (type instanceof Class) {
+                if (DefaultTypeFunction.isObject((Class<?>) type, registry)) {
+                    result.add((Class<?>) type);
+                }
+            } else if (type instanceof ParameterizedType) {
+                Class<?> raw = (Class<?>) ((ParameterizedType) type).getRawType();
+                if (DefaultTypeFunction.isObject(raw, registry)) {
+                    result.add(raw);
+                } else {
+                    for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                        add(argument, result);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Tarjan's algorithm, with an explicit stack so that long chains of references don't overflow the thread's
+         * stack
+         * @return strongly connected components, each one listed after all components it refers to
+         */
+        private List<List<Class<?>>> components() {
+            Map<Class<?>, Integer> index = new HashMap<>();
+            Map<Class<?>, Integer> lowLink = new HashMap<>();
+            Deque<Class<?>> stack = new ArrayDeque<>();
+            Set<Class<?>> onStack = new HashSet<>();
+            List<List<Class<?>>> result = new ArrayList<>();
+            Deque<Visit> visits = new ArrayDeque<>();
+            for (Class<?> root : edges.keySet()) {
+                if (index.containsKey(root)) {
+                    continue;
+                }
+                visits.push(new Visit(root));
+                while (!visits.isEmpty()) {
+                    Visit visit = visits.peek();
+                    Class<?> klass = visit.klass;
+                    if (!index.containsKey(klass)) {
+                        index.put(klass, index.size());
+                        lowLink.put(klass, index.get(klass));
+                        stack.push(klass);
+                        onStack.add(klass);
+                    }
+                    if (visit.references.hasNext()) {
+                        Class<?> reference = visit.references.next();
+                        if (!index.containsKey(reference)) {
+                            visits.push(new Visit(reference));
+                        } else if (onStack.contains(reference)) {
+                            lowLink.put(klass, Math.min(lowLink.get(klass), index.get(reference)));
+                        }
+                        continue;
+                    }
+                    visits.pop();
+                    if (!visits.isEmpty()) {
+                        Class<?> referrer = visits.peek().klass;
+                        lowLink.put(referrer, Math.min(lowLink.get(referrer), lowLink.get(klass)));
+                    }
+                    if (lowLink.get(klass).equals(index.get(klass))) {
+                        List<Class<?>> component = new ArrayList<>();
+                        Class<?> member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (member != klass);
+                        result.add(component);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Class being visited and its references left to visit
+         */
+        private class Visit {
+            private final Class<?> klass;
+            private final Iterator<Class<?>> references;
+
+            private Visit(Class<?> klass) {
+                this.klass = klass;
+                this.references = edges.get(klass).iterator();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Borrows instances from a bounded pool for the duration of an invocation.
+ *
+ * When the pool is empty, a new instance is created; instances released into a full pool are dropped. Only idle
+ * instances are bounded by the pool's size: there are as many instances in use as there are concurrent invocations.
+ */
+public class PooledInstanceProvider implements InstanceProvider {
+    private final Supplier<?> factory;
+    private final BlockingQueue<Object> pool;
+
+    public PooledInstanceProvider(Supplier<?> factory, int maxSize) {
+        this.factory = factory;
+        this.pool = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    @Override
+    public Object getInstance(DataFetchingEnvironment environment) {
+        Object instance = pool.poll();
+        return instance == null ? factory.get() : instance;
+    }
+
+    @Override
+    public void release(Object instance) {
+        pool.offer(instance);
+    }
+}
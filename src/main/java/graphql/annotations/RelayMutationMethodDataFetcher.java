@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 
 public class RelayMutationMethodDataFetcher implements DataFetcher {
     private final Method method;
+    private final MethodInvoker invoker;
     private final List<GraphQLArgument> args;
     private final GraphQLInputType input;
     private final GraphQLOutputType type;
@@ -33,6 +34,7 @@ public class RelayMutationMethodDataFetcher implements DataFetcher {
 
     public RelayMutationMethodDataFetcher(Method method, List<GraphQLArgument> args, GraphQLInputType input, GraphQLOutputType type) {
         this.method = method;
+        this.invoker = MethodInvoker.of(method);
         this.args = args;
         this.input = input;
         this.type = type;
@@ -52,7 +54,7 @@ public class RelayMutationMethodDataFetcher implements DataFetcher {
             if (envIndex >= 0) {
                 args.add(envIndex, environment);
             }
-            return method.invoke(environment.getSource(), args.toArray());
+            return invoker.invoke(environment.getSource(), args.toArray());
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new RuntimeException(e);
         }
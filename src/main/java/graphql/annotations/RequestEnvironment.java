@@ -0,0 +1,42 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Environment of a field fetched by {@link EnhancedExecutionStrategy}, carrying the request's {@link RequestScope}
+ */
+class RequestEnvironment extends DataFetchingEnvironment {
+
+    private final RequestScope scope;
+
+    RequestEnvironment(Object source, Map<String, Object> arguments, Object context, List<Field> fields,
+                       GraphQLOutputType fieldType, GraphQLType parentType, GraphQLSchema graphQLSchema, RequestScope scope) {
+        super(source, arguments, context, fields, fieldType, parentType, graphQLSchema);
+        this.scope = scope;
+    }
+
+    RequestScope getScope() {
+        return scope;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.execution.ExecutionContext;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * State of a request executed with {@link EnhancedExecutionStrategy}: data loaders created for it, results of
+ * memoized methods and the executor of its blocking methods.
+ * Data fetchers find it in the {@link RequestEnvironment} they are given.
+ */
+class RequestScope {
+
+    private static final ContextScope<RequestScope> scopes = new ContextScope<>();
+
+    private final Map<Class<?>, DataLoader<?, ?>> loaders = new ConcurrentHashMap<>();
+    private final Map<Object, CompletableFuture<Object>> memos = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Executor blockingExecutor;
+
+    private RequestScope(Executor blockingExecutor) {
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    /**
+     * @param blockingExecutor executor of methods annotated with {@link GraphQLBlocking}, or null to invoke them inline
+     * @return scope of the request, discarded along with its execution context
+     */
+    static RequestScope of(ExecutionContext executionContext, Executor blockingExecutor) {
+        return scopes.get(executionContext, c -> new RequestScope(blockingExecutor));
+    }
+
+    /**
+     * @return scope of the request the environment belongs to, or null if it wasn't created by
+     * {@link EnhancedExecutionStrategy}
+     */
+    static RequestScope of(DataFetchingEnvironment environment) {
+        return environment instanceof RequestEnvironment ? ((RequestEnvironment) environment).getScope() : null;
+    }
+
+    Executor getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> DataLoader<K, V> loader(Class<?> batchLoader, Supplier<DataLoader<K, V>> factory) {
+        return (DataLoader<K, V>) loaders.computeIfAbsent(batchLoader, k -> factory.get());
+    }
+
+    /**
+     * @param invocation key of the invocation
+     * @param fetch fetches the result, once per invocation
+     * @return the result of the first fetch of the invocation, or a future of it for fetches following it
+     */
+    Object memoize(Object invocation, Supplier<Object> fetch) {
+        CompletableFuture<Object> memo = new CompletableFuture<>();
+        CompletableFuture<Object> fetched = memos.putIfAbsent(invocation, memo);
+        if (fetched != null) {
+            return fetched;
+        }
+        Object result;
+        try {
+            result = fetch.get();
+        } catch (Throwable e) {
+            // fetches following it fail as well instead of waiting forever
+            memo.completeExceptionally(e);
+            throw e;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, e) -> {
+                if (e == null) {
+                    memo.complete(value);
+                } else {
+                    memo.completeExceptionally(e);
+                }
+            });
+        } else {
+            memo.complete(result);
+        }
+        return result;
+    }
+
+    /**
+     * Runs work that may queue keys to load. Once no work of the request is running, in this thread or any other,
+     * queued keys are loaded, including keys queued while others are being loaded, so that keys queued by
+     * concurrent and nested work are loaded together.
+     */
+    <T> T batch(Supplier<T> work) {
+        running.incrementAndGet();
+        try {
+            return work.get();
+        } finally {
+            done();
+        }
+    }
+
+    /**
+     * Runs work like {@link #batch(Supplier)} on an executor, or right away if the executor rejects it. The work
+     * counts as running from now on, so that keys are not loaded before it has queued its own.
+     */
+    <T> CompletableFuture<T> batch(Supplier<CompletableFuture<T>> work, Executor executor) {
+        running.incrementAndGet();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return work.get();
+                } finally {
+                    done();
+                }
+            }, executor).thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            try {
+                return work.get();
+            } finally {
+                done();
+            }
+        }
+    }
+
+    private void done() {
+        while (running.decrementAndGet() == 0 && queued()) {
+            // count loading as running work, so that work run by completing loaded values leaves loading to this loop
+            running.incrementAndGet();
+            for (DataLoader<?, ?> loader : loaders.values()) {
+                loader.dispatch();
+            }
+        }
+    }
+
+    private boolean queued() {
+        for (DataLoader<?, ?> loader : loaders.values()) {
+            if (loader.queued()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Invokes every detached method of a class on the same instance
+ */
+public class SingletonInstanceProvider implements InstanceProvider {
+    private final Object instance;
+
+    public SingletonInstanceProvider(Object instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public Object getInstance(DataFetchingEnvironment environment) {
+        return instance;
+    }
+}
@@ -14,32 +14,40 @@
  */
 package graphql.annotations;
 
-import graphql.relay.Base64;
-import graphql.relay.ConnectionCursor;
 import graphql.relay.Edge;
 import graphql.relay.PageInfo;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Connection over a stream, which is consumed only as far as the requested page needs: up to <code>first + 1</code>
+ * elements with <code>first</code>, and through the end of the window keeping the last <code>last</code> elements
+ * otherwise. Edges are created for the returned page only, and their cursors are encoded with
+ * {@link #getCursorCodec()} only once they are serialized.
+ */
 public class StreamConnection implements DataFetcher, Connection {
 
     private final Stream<?> stream;
-    private static final String DUMMY_CURSOR_PREFIX = "stream-cursor";
-    
+    private final CursorCodec codec;
+
     public StreamConnection(Stream<?> stream) {
-        this.stream = stream;
+        this(stream, OffsetCursorCodec.INSTANCE);
     }
 
-    private Stream<Edge> buildEdges() {
-        AtomicInteger ix = new AtomicInteger();
-        return stream.map(obj -> new Edge(obj, new ConnectionCursor(createCursor(ix.incrementAndGet()))));
+    public StreamConnection(Stream<?> stream, CursorCodec codec) {
+        this.stream = stream;
+        this.codec = codec;
     }
 
+    @Override
+    public CursorCodec getCursorCodec() {
+        return codec;
+    }
 
     @Override
     public Object get(DataFetchingEnvironment environment) {
@@ -47,39 +55,64 @@ public class StreamConnection implements DataFetcher, Connection {
         int afterOffset = getOffsetFromCursor(environment.<String>getArgument("after"), 0);
         int beforeOffset = getOffsetFromCursor(environment.<String>getArgument("before"), Integer.MAX_VALUE);
 
-        Stream<Edge> edgesStream = buildEdges().skip(afterOffset).limit(beforeOffset - afterOffset);
-
-        List<Edge> edges = edgesStream.collect(Collectors.toList());
-
-        if (edges.size() == 0) {
-            return emptyConnection();
-        }
-
         Integer first = environment.<Integer>getArgument("first");
         Integer last = environment.<Integer>getArgument("last");
 
-        ConnectionCursor firstPresliceCursor = edges.get(0).getCursor();
-        ConnectionCursor lastPresliceCursor = edges.get(edges.size() - 1).getCursor();
+        // the window is the part of the stream between the cursors; an element's cursor is its index + 1
+        Iterator<?> window = stream.skip(afterOffset).limit(Math.max(0, (long) beforeOffset - afterOffset - 1)).iterator();
+
+        List<Object> page = new ArrayList<>();   // buffer holding the page, grown as elements are read
+        int from = 0;           // index of the page's first element in the buffer
+        int size;               // number of elements in the page
+        int skipped = 0;        // number of elements of the window before the page
+        boolean hasNextPage = false;
 
         if (first != null) {
-            edges = edges.subList(0, first <= edges.size() ? first : edges.size());
-        }
-        if (last != null) {
-            edges = edges.subList(edges.size() - last, edges.size());
+            while (page.size() < first && window.hasNext()) {
+                page.add(window.next());
+            }
+            size = page.size();
+            hasNextPage = window.hasNext();
+            if (last != null && size > last) {
+                skipped = from = size - Math.max(0, last);
+                size -= skipped;
+            }
+        } else if (last != null) {
+            // ring buffer of the last elements of the window, never larger than the elements seen
+            int seen = 0;
+            while (window.hasNext()) {
+                Object element = window.next();
+                if (page.size() < last) {
+                    page.add(element);
+                } else if (last > 0) {
+                    page.set(seen % last, element);
+                }
+                seen++;
+            }
+            size = page.size();
+            skipped = seen - size;
+            from = skipped == 0 ? 0 : seen % size;
+        } else {
+            window.forEachRemaining(page::add);
+            size = page.size();
         }
 
-        if (edges.size() == 0) {
+        if (size == 0) {
             return emptyConnection();
         }
 
-        Edge firstEdge = edges.get(0);
-        Edge lastEdge = edges.get(edges.size() - 1);
+        CursorCodec cursorCodec = getCursorCodec();
+        List<Edge> edges = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int offset = afterOffset + skipped + i + 1;
+            edges.add(new Edge(page.get((from + i) % page.size()), new OffsetCursor(cursorCodec, offset)));
+        }
 
         PageInfo pageInfo = new PageInfo();
-        pageInfo.setStartCursor(firstEdge.getCursor());
-        pageInfo.setEndCursor(lastEdge.getCursor());
-        pageInfo.setHasPreviousPage(!firstEdge.getCursor().equals(firstPresliceCursor));
-        pageInfo.setHasNextPage(!lastEdge.getCursor().equals(lastPresliceCursor));
+        pageInfo.setStartCursor(edges.get(0).getCursor());
+        pageInfo.setEndCursor(edges.get(edges.size() - 1).getCursor());
+        pageInfo.setHasPreviousPage(skipped > 0);
+        pageInfo.setHasNextPage(hasNextPage);
 
         graphql.relay.Connection connection = new graphql.relay.Connection();
         connection.setEdges(edges);
@@ -94,22 +127,8 @@ public class StreamConnection implements DataFetcher, Connection {
         return connection;
     }
 
-
-//    public ConnectionCursor cursorForObjectInConnection(Object object) {
-//        int index = data.indexOf(object);
-//        String cursor = createCursor(index);
-//        return new ConnectionCursor(cursor);
-//    }
-
-
     private int getOffsetFromCursor(String cursor, int defaultValue) {
         if (cursor == null) return defaultValue;
-        String string = Base64.fromBase64(cursor);
-        return Integer.parseInt(string.substring(DUMMY_CURSOR_PREFIX.length()));
-    }
-
-    private String createCursor(int offset) {
-        String string = Base64.toBase64(DUMMY_CURSOR_PREFIX + Integer.toString(offset));
-        return string;
+        return getCursorCodec().decode(cursor);
     }
 }
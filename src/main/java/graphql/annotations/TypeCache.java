@@ -0,0 +1,273 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.*;
+import graphql.schema.GraphQLType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Memoizes types built from classes by {@link GraphQLAnnotations#object(Class)}, {@link GraphQLAnnotations#iface(Class)}
+ * and {@link DefaultTypeFunction} for enums, so that there is a single type per class.
+ *
+ * Types being built are tracked per thread, so that a cyclic reference to one of them resolves to a
+ * {@link GraphQLTypeReference}, which the schema replaces with the type once it is built. Types built by a thread
+ * are reused by that thread right away and cached for everybody once the outermost type it builds is finished,
+ * all of them at once, unless another thread has cached any of them first. A type that refers to another type
+ * still being built at the time (references to itself are fine) is only usable within the schema of its referent,
+ * so it is not cached: asked for on its own, it is built again with the finished referent embedded.
+ *
+ * An object implementing an interface that is still being built is referred to and built right after the
+ * interface, so that it gets the interface's only instance.
+ */
+class TypeCache {
+
+    private volatile ClassValue<AtomicReference<GraphQLType>> types = newTypes();
+    private final ThreadLocal<Build> builds = new ThreadLocal<>();
+    private volatile Map<String, GraphQLType> names = new ConcurrentHashMap<>();
+
+    private static ClassValue<AtomicReference<GraphQLType>> newTypes() {
+        return new ClassValue<AtomicReference<GraphQLType>>() {
+            @Override
+            protected AtomicReference<GraphQLType> computeValue(Class<?> type) {
+                return new AtomicReference<>();
+            }
+        };
+    }
+
+    /**
+     * Types built by a thread since it started building its outermost type
+     */
+    private static class Build {
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Map<Class<?>, Frame> finished = new LinkedHashMap<>();
+        private boolean failed;
+    }
+
+    static class Frame {
+        private final Class<?> klass;
+        private final String name;
+        private final Set<Class<?>> deferred = new LinkedHashSet<>();
+        private final Set<String> references = new HashSet<>();
+        private GraphQLType type;
+        private boolean finished;
+
+        private Frame(Class<?> klass, String name) {
+            this.klass = klass;
+            this.name = name;
+        }
+
+        /**
+         * @return objects implementing this interface that have been referred to while it was being built
+         */
+        Set<Class<?>> getDeferred() {
+            return deferred;
+        }
+    }
+
+    /**
+     * @return cached type, type built by the current thread or null
+     */
+    GraphQLType get(Class<?> klass) {
+        GraphQLType type = types.get(klass).get();
+        if (type != null) {
+            return type;
+        }
+        Build build = builds.get();
+        if (build == null) {
+            return null;
+        }
+        Frame frame = build.finished.get(klass);
+        if (frame == null) {
+            return null;
+        }
+        embed(build, frame);
+        return frame.type;
+    }
+
+    /**
+     * @return cached type or type built by the current thread with the name, or null
+     */
+    GraphQLType get(String name) {
+        Build build = builds.get();
+        if (build != null) {
+            for (Frame frame : build.finished.values()) {
+                if (frame.type.getName().equals(name)) {
+                    embed(build, frame);
+                    return frame.type;
+                }
+            }
+        }
+        return names.get(name);
+    }
+
+    /**
+     * Caches a type, unless another thread has cached one first
+     * @return canonical type for the class
+     */
+    GraphQLType put(Class<?> klass, GraphQLType type) {
+        synchronized (this) {
+            GraphQLType cached = types.get(klass).get();
+            if (cached != null) {
+                return cached;
+            }
+            publish(klass, type);
+            return type;
+        }
+    }
+
+    /**
+     * Caches types built together that only refer to each other, unless any of them has been cached already
+     */
+    private synchronized void put(Collection<Frame> built) {
+        List<Frame> complete = new ArrayList<>();
+        for (Frame frame : built) {
+            if (frame.references.isEmpty()) {
+                if (types.get(frame.klass).get() != null) {
+                    return;
+                }
+                complete.add(frame);
+            }
+        }
+        complete.forEach(frame -> publish(frame.klass, frame.type));
+    }
+
+    private void publish(Class<?> klass, GraphQLType type) {
+        types.get(klass).set(type);
+        names.putIfAbsent(type.getName(), type);
+        if (type instanceof GraphQLObjectType) {
+            for (GraphQLInterfaceType iface : ((GraphQLObjectType) type).getInterfaces()) {
+                if (iface.getTypeResolver() instanceof ClassTypeResolver) {
+                    ((ClassTypeResolver) iface.getTypeResolver()).register(klass, (GraphQLObjectType) type);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all cached types, for example after a type function has been registered
+     */
+    void clear() {
+        types = newTypes();
+        names = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Marks a type as being built by the current thread. Has to be matched with {@link #exit(Frame)}
+     */
+    Frame enter(Class<?> klass, String name) {
+        Build build = builds.get();
+        if (build == null) {
+            build = new Build();
+            builds.set(build);
+        }
+        Frame frame = new Frame(klass, name);
+        build.frames.push(frame);
+        return frame;
+    }
+
+    /**
+     * Records a built type. From now on it is returned by {@link #get(Class)} to the current thread
+     */
+    void finish(Frame frame, GraphQLType type) {
+        builds.get().finished.put(frame.klass, frame);
+        frame.type = type;
+        frame.finished = true;
+    }
+
+    /**
+     * @return canonical type built in the frame, or the type itself if it couldn't be cached
+     */
+    GraphQLType get(Frame frame) {
+        GraphQLType type = types.get(frame.klass).get();
+        return type == null ? frame.type : type;
+    }
+
+    /**
+     * Ends building of a type, whether it has been {@link #finish(Frame, GraphQLType) finished} or failed.
+     * Once the outermost type is done, types built by the thread are cached
+     */
+    void exit(Frame frame) {
+        Build build = builds.get();
+        build.frames.remove(frame);
+        build.failed |= !frame.finished;
+        frame.references.remove(frame.name);
+        embed(build, frame);
+        if (!build.frames.isEmpty()) {
+            return;
+        }
+        builds.remove();
+        if (!build.failed) {
+            put(build.finished.values());
+        }
+    }
+
+    /**
+     * @return a reference to the type if it is being built by the current thread, null otherwise
+     */
+    GraphQLTypeReference reference(String name) {
+        Build build = builds.get();
+        if (build == null) {
+            return null;
+        }
+        for (Frame frame : build.frames) {
+            if (!frame.finished && frame.name.equals(name)) {
+                build.frames.peek().references.add(name);
+                return new GraphQLTypeReference(name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the type being built by the current thread refer to whatever a type it embeds refers to
+     */
+    private static void embed(Build build, Frame embedded) {
+        Frame frame = build.frames.peek();
+        if (frame == null || frame == embedded) {
+            return;
+        }
+        for (String name : embedded.references) {
+            if (!name.equals(embedded.name)) {
+                frame.references.add(name);
+            }
+        }
+    }
+
+    /**
+     * Defers building of an object if one of its interfaces is being built by the current thread: the object will
+     * be built right after the interface
+     * @param klass object class
+     * @param name object type name
+     * @param interfaces GraphQL interfaces of the object
+     * @return a reference to the object if it has been deferred, null otherwise
+     */
+    GraphQLTypeReference defer(Class<?> klass, String name, List<Class<?>> interfaces) {
+        Build build = builds.get();
+        if (build == null || interfaces.isEmpty() || get(klass) != null) {
+            return null;
+        }
+        for (Frame frame : build.frames) {
+            if (!frame.finished && interfaces.contains(frame.klass)) {
+                frame.deferred.add(klass);
+                return new GraphQLTypeReference(name);
+            }
+        }
+        return null;
+    }
+}
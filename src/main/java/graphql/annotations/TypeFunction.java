@@ -20,4 +20,16 @@ import java.lang.reflect.AnnotatedType;
 import java.util.function.BiFunction;
 
 public interface TypeFunction extends BiFunction<Class<?>, AnnotatedType, GraphQLType> {
+
+    /**
+     * Builds a type using <code>registry</code> for any other types it refers to. Functions that don't build
+     * other types don't have to override this.
+     * @param aClass Java type
+     * @param annotatedType annotated type, if any
+     * @param registry registry the type is built with
+     * @return GraphQL type
+     */
+    default GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType, TypeRegistry registry) {
+        return apply(aClass, annotatedType);
+    }
 }
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLType;
+import graphql.schema.TypeResolver;
+import lombok.SneakyThrows;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type functions, instance providers and types built from classes.
+ *
+ * Everything built with a registry shares its state and nothing else, so independent schemas can be built
+ * with their own registries concurrently and can map the same class differently. Static methods of
+ * {@link GraphQLAnnotations} and {@link DefaultTypeFunction} use the {@link #getDefault() default registry}.
+ */
+public class TypeRegistry {
+
+    private static final TypeFunction UNSUPPORTED = (aClass, annotatedType) -> {
+        throw new IllegalArgumentException("unsupported type");
+    };
+
+    private static final TypeRegistry defaultRegistry = new TypeRegistry();
+
+    private final Map<String, TypeFunction> registry = new ConcurrentHashMap<>();
+    private volatile ClassValue<TypeFunction> functions = new Functions();
+
+    private final Map<Class<?>, InstanceProvider> instanceProviders = new ConcurrentHashMap<>();
+
+    /**
+     * Object, interface, union and enum types built so far
+     */
+    final TypeCache typeCache = new TypeCache();
+
+    final InputTypeCache inputTypes = new InputTypeCache(typeCache);
+
+    private final ClassValue<TypeResolver> typeResolvers = new ClassValue<TypeResolver>() {
+        @Override
+        @SneakyThrows
+        protected TypeResolver computeValue(Class<?> type) {
+            return (TypeResolver) type.newInstance();
+        }
+    };
+
+    private final TypeFunction typeFunction = new DefaultTypeFunction(this);
+
+    /**
+     * Creates a registry with the default type functions
+     */
+    public TypeRegistry() {
+        DefaultTypeFunction.registerDefaults(this);
+    }
+
+    /**
+     * @return registry used by static methods of {@link GraphQLAnnotations}
+     */
+    public static TypeRegistry getDefault() {
+        return defaultRegistry;
+    }
+
+    /**
+     * @return {@link DefaultTypeFunction} using this registry
+     */
+    public TypeFunction getTypeFunction() {
+        return typeFunction;
+    }
+
+    /**
+     * Register a type function for <code>klass</code> and its subclasses. Types built so far are dropped.
+     * @param klass Java type
+     * @param function type function
+     * @return this registry
+     */
+    public TypeRegistry register(Class<?> klass, TypeFunction function) {
+        registry.put(klass.getName(), function);
+        functions = new Functions();
+        typeCache.clear();
+        inputTypes.clear();
+        return this;
+    }
+
+    /**
+     * @return type function registered for the nearest type of <code>klass</code>
+     */
+    TypeFunction function(Class<?> klass) {
+        return functions.get(klass);
+    }
+
+    /**
+     * Functions registered for classes, resolved through the class hierarchy: the class itself and its superclasses
+     * first, then interfaces it implements (nearest first) and {@link Object} last
+     */
+    private class Functions extends ClassValue<TypeFunction> {
+        @Override
+        protected TypeFunction computeValue(Class<?> type) {
+            for (Class<?> t = type; t != null && t != Object.class; t = t.getSuperclass()) {
+                TypeFunction function = registry.get(t.getName());
+                if (function != null) {
+                    return function;
+                }
+            }
+            Deque<Class<?>> interfaces = new ArrayDeque<>();
+            Set<Class<?>> visited = new HashSet<>();
+            for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+                interfaces.addAll(Arrays.asList(t.getInterfaces()));
+            }
+            while (!interfaces.isEmpty()) {
+                Class<?> iface = interfaces.poll();
+                if (visited.add(iface)) {
+                    TypeFunction function = registry.get(iface.getName());
+                    if (function != null) {
+                        return function;
+                    }
+                    interfaces.addAll(Arrays.asList(iface.getInterfaces()));
+                }
+            }
+            if (type.isPrimitive()) {
+                return UNSUPPORTED;
+            }
+            return registry.getOrDefault(Object.class.getName(), UNSUPPORTED);
+        }
+    }
+
+    /**
+     * Register a provider of instances for <code>klass</code>'s methods annotated with {@link GraphQLInvokeDetached}.
+     * Providers are looked up when fields are built, so this has to be done before <code>klass</code> is processed.
+     * @param klass class declaring detached methods
+     * @param provider instance provider
+     */
+    public void registerInstanceProvider(Class<?> klass, InstanceProvider provider) {
+        instanceProviders.put(klass, provider);
+    }
+
+    /**
+     * @param klass class declaring detached methods
+     * @return provider registered for <code>klass</code> or a provider creating a new instance on every invocation
+     */
+    public InstanceProvider instanceProvider(Class<?> klass) {
+        InstanceProvider provider = instanceProviders.get(klass);
+        return provider == null ? new NewInstanceProvider(klass) : provider;
+    }
+
+    TypeResolver typeResolver(Class<? extends TypeResolver> klass) {
+        return typeResolvers.get(klass);
+    }
+
+    /**
+     * @see GraphQLAnnotations#object(Class, TypeRegistry)
+     */
+    public GraphQLObjectType object(Class<?> object) throws IllegalAccessException, InstantiationException, NoSuchMethodException {
+        return GraphQLAnnotations.object(object, this);
+    }
+
+    /**
+     * @see GraphQLAnnotations#iface(Class, TypeRegistry)
+     */
+    public GraphQLType iface(Class<?> iface) throws IllegalAccessException, InstantiationException {
+        return GraphQLAnnotations.iface(iface, this);
+    }
+
+    /**
+     * @see GraphQLAnnotations#inputObject(GraphQLObjectType, TypeRegistry)
+     */
+    public GraphQLInputObjectType inputObject(GraphQLObjectType object) {
+        return GraphQLAnnotations.inputObject(object, this);
+    }
+
+    private static class NewInstanceProvider implements InstanceProvider {
+        private final Class<?> klass;
+        private final Constructor<?> constructor;
+
+        NewInstanceProvider(Class<?> klass) {
+            this.klass = klass;
+            Constructor<?> constructor;
+            try {
+                constructor = klass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                constructor = null;
+            }
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object getInstance(DataFetchingEnvironment environment) throws Exception {
+            return constructor == null ? klass.getDeclaredConstructor().newInstance() : constructor.newInstance();
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -51,6 +52,13 @@ public class DefaultTypeFunctionTest {
 
     }
 
+    @Test
+    public void enumerationCached() {
+        GraphQLType enumeration = instance.apply(A.class, null);
+        assertSame(instance.apply(A.class, null), enumeration);
+        assertEquals(((GraphQLEnumType) enumeration).getValues().get(0).getValue(), A.A.ordinal());
+    }
+
     @Test
     public void string() {
         assertEquals(instance.apply(String.class, null), GraphQLString);
@@ -115,6 +123,38 @@ public class DefaultTypeFunctionTest {
         assertEquals(wrappedType.getWrappedType(), GraphQLString);
     }
 
+    public interface StringList extends List<String> {}
+
+    @SuppressWarnings("unused")
+    public CopyOnWriteArrayList<String> listImplementationMethod() { return null;};
+
+    @Test
+    public void listInterfaces() throws NoSuchMethodException {
+        graphql.schema.GraphQLType stringList = instance.apply(StringList.class, null);
+        assertTrue(stringList instanceof GraphQLList);
+        assertEquals(((GraphQLList) stringList).getWrappedType(), GraphQLString);
+
+        graphql.schema.GraphQLType type = instance.apply(CopyOnWriteArrayList.class, getClass().getMethod("listImplementationMethod").getAnnotatedReturnType());
+        assertTrue(type instanceof GraphQLList);
+        assertEquals(((GraphQLList) type).getWrappedType(), GraphQLString);
+    }
+
+    public static class Seconds {}
+
+    @Test
+    public void registration() {
+        TypeRegistry registry = new TypeRegistry();
+        TypeFunction function = registry.getTypeFunction();
+        assertTrue(function.apply(Seconds.class, null) instanceof GraphQLObjectType);
+        registry.register(Seconds.class, (aClass, annotatedType) -> GraphQLLong);
+        assertEquals(function.apply(Seconds.class, null), GraphQLLong);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupported() {
+        instance.apply(void.class, null);
+    }
+
     @SuppressWarnings("unused")
     public Optional<List<@GraphQLNonNull String>> optionalMethod() { return Optional.empty();};
 
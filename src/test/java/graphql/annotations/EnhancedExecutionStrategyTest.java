@@ -0,0 +1,327 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import lombok.SneakyThrows;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EnhancedExecutionStrategyTest {
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Value available only once all parties have asked for theirs, so that it is never available to
+     * parties asking one after another
+     */
+    private static <T> CompletableFuture<T> rendezvous(CyclicBarrier barrier, T value) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            return value;
+        }, executor);
+    }
+
+    public static class Remote {
+        private final CyclicBarrier barrier;
+        private final String name;
+
+        public Remote(CyclicBarrier barrier, String name) {
+            this.barrier = barrier;
+            this.name = name;
+        }
+
+        @GraphQLField
+        public String name() {
+            return name;
+        }
+
+        @GraphQLField
+        public CompletionStage<String> details() {
+            return rendezvous(barrier, name + " details");
+        }
+    }
+
+    public static class Query {
+        private final CyclicBarrier top = new CyclicBarrier(2);
+        private final CyclicBarrier nested = new CyclicBarrier(3);
+
+        @GraphQLField
+        public CompletableFuture<Remote> first() {
+            return rendezvous(top, new Remote(nested, "first"));
+        }
+
+        @GraphQLField
+        public CompletableFuture<List<Remote>> second() {
+            return rendezvous(top, Arrays.asList(new Remote(nested, "second"), new Remote(nested, "third")));
+        }
+
+        @GraphQLField
+        public CompletableFuture<String> failing() {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalStateException("unavailable"));
+            return result;
+        }
+    }
+
+    @SneakyThrows
+    private GraphQLSchema schema() {
+        return newSchema().query(GraphQLAnnotations.object(Query.class)).build();
+    }
+
+    @Test @SneakyThrows
+    public void futureTypes() {
+        assertEquals(GraphQLAnnotations.object(Remote.class).getFieldDefinition("details").getType(), GraphQLString);
+        assertEquals(GraphQLAnnotations.object(Query.class).getFieldDefinition("first").getType().getName(), "Remote");
+    }
+
+    @Test
+    public void overlappingFutures() {
+        ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy())
+                .execute("{first {name details} second {name details}}", new Query());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        Map<String, Object> first = (Map<String, Object>) data.get("first");
+        assertEquals(first.get("details"), "first details");
+        List<Map<String, Object>> second = (List<Map<String, Object>>) data.get("second");
+        assertEquals(second.get(1).get("name"), "third");
+        assertEquals(second.get(1).get("details"), "third details");
+    }
+
+    public static class Blocking {
+        private final CyclicBarrier barrier = new CyclicBarrier(3);
+
+        @SneakyThrows
+        private <T> T await(T value) {
+            barrier.await(5, TimeUnit.SECONDS);
+            return value;
+        }
+
+        @GraphQLField
+        public String a() {
+            return await("a");
+        }
+
+        @GraphQLField
+        public Optional<String> b() {
+            return await(Optional.of("b"));
+        }
+
+        @GraphQLField
+        public GraphQLObjectTest.EnumTest.E c() {
+            return await(GraphQLObjectTest.EnumTest.E.B);
+        }
+
+        @GraphQLField
+        public List<Blocking> elements() {
+            return Arrays.asList(new Blocking(), new Blocking(), new Blocking());
+        }
+    }
+
+    public static class Element {
+        private final CyclicBarrier barrier;
+
+        public Element(CyclicBarrier barrier) {
+            this.barrier = barrier;
+        }
+
+        @GraphQLField
+        @SneakyThrows
+        public String value() {
+            barrier.await(5, TimeUnit.SECONDS);
+            return "value";
+        }
+    }
+
+    public static class Elements {
+        @GraphQLField
+        public List<Element> elements() {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            return Arrays.asList(new Element(barrier), new Element(barrier));
+        }
+    }
+
+    @Test @SneakyThrows
+    public void concurrentSiblings() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(Blocking.class)).build();
+        ExecutionResult result = new GraphQL(schema, new EnhancedExecutionStrategy(executor)).execute("{a b c}", new Blocking());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(new ArrayList<>(data.keySet()), Arrays.asList("a", "b", "c"));
+        assertEquals(data.get("a"), "a");
+        assertEquals(data.get("b"), "b");
+        assertEquals(data.get("c"), "B");
+    }
+
+    @Test @SneakyThrows
+    public void concurrentListElements() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(Elements.class)).build();
+        ExecutionResult result = new GraphQL(schema, new EnhancedExecutionStrategy(executor, true)).execute("{elements {value}}", new Elements());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        List<Map<String, Object>> elements = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get("elements");
+        assertEquals(elements.get(1).get("value"), "value");
+    }
+
+    @Test @SneakyThrows
+    public void concurrentRelayMutation() {
+        GraphQLObjectType object = GraphQLAnnotations.object(RelayTest.TestObject.class);
+        GraphQLSchema schema = newSchema().query(object).mutation(object).build();
+        ExecutionResult result = new GraphQL(schema, new EnhancedExecutionStrategy(executor, true))
+                .execute("mutation { doSomething(input: {clientMutationId: \"1\"}) { i clientMutationId } }", new RelayTest.TestObject());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> returns = (Map<String, Object>) ((Map<String, Object>) result.getData()).get("doSomething");
+        assertEquals(returns.get("i"), 0);
+        assertEquals(returns.get("clientMutationId"), "1");
+    }
+
+    public static class Item {
+        @GraphQLField
+        public String name = "item";
+    }
+
+    @GraphQLBlocking
+    public static class Store {
+        private final CyclicBarrier barrier = new CyclicBarrier(2);
+
+        @GraphQLField
+        @SneakyThrows
+        public String a() {
+            barrier.await(5, TimeUnit.SECONDS);
+            return "a";
+        }
+
+        @GraphQLField
+        @SneakyThrows
+        public String b() {
+            barrier.await(5, TimeUnit.SECONDS);
+            return "b";
+        }
+
+        @GraphQLField
+        @GraphQLBlocking(false)
+        public String thread() {
+            return Thread.currentThread().getName();
+        }
+
+        @GraphQLField
+        @GraphQLConnection
+        public List<Item> items() {
+            return Arrays.asList(new Item(), new Item());
+        }
+
+        @GraphQLField
+        public String failing() {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Test @SneakyThrows
+    public void blockingMethods() {
+        ExecutorService blocking = BlockingExecutors.newBlockingExecutor(4);
+        try {
+            GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(Store.class)).build();
+            ExecutionResult result = new GraphQL(schema, new EnhancedExecutionStrategy(null, false, blocking))
+                    .execute("{a b thread items(first: 1) {edges {node {name}}} failing}", new Store());
+            assertEquals(result.getErrors().size(), 1);
+            Map<String, Object> data = (Map<String, Object>) result.getData();
+            assertEquals(data.get("a"), "a");
+            assertEquals(data.get("b"), "b");
+            assertEquals(data.get("thread"), Thread.currentThread().getName());
+            List<Map<String, Object>> edges = (List<Map<String, Object>>) ((Map<String, Object>) data.get("items")).get("edges");
+            assertEquals(edges.size(), 1);
+            assertEquals(((Map<String, Object>) edges.get(0).get("node")).get("name"), "item");
+            assertEquals(data.get("failing"), null);
+        } finally {
+            blocking.shutdown();
+        }
+    }
+
+    public static class Memoized {
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @GraphQLField
+        @GraphQLMemoized
+        public int square(@GraphQLName("x") int x) {
+            invocations.incrementAndGet();
+            return x * x;
+        }
+
+        @GraphQLField
+        public List<Memoized> self() {
+            return Arrays.asList(this, this);
+        }
+
+        @GraphQLField
+        public Memoized other() {
+            return new Memoized();
+        }
+    }
+
+    @Test @SneakyThrows
+    public void memoized() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(Memoized.class)).build();
+        GraphQL graphQL = new GraphQL(schema, new EnhancedExecutionStrategy());
+        Memoized memoized = new Memoized();
+        String query = "{a: square(x: 2) b: square(x: 2) c: square(x: 3) self {square(x: 2)} other {square(x: 2)}}";
+
+        ExecutionResult result = graphQL.execute(query, memoized);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(data.get("a"), 4);
+        assertEquals(data.get("b"), 4);
+        assertEquals(data.get("c"), 9);
+        assertEquals(((List<Map<String, Object>>) data.get("self")).get(1).get("square"), 4);
+        assertEquals(((Map<String, Object>) data.get("other")).get("square"), 4);
+        assertEquals(memoized.invocations.get(), 2);
+
+        graphQL.execute(query, memoized);
+        assertEquals(memoized.invocations.get(), 4);
+
+        new GraphQL(schema).execute("{a: square(x: 2) b: square(x: 2)}", memoized);
+        assertEquals(memoized.invocations.get(), 6);
+    }
+
+    @Test
+    public void failingFuture() {
+        ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy()).execute("{failing}", new Query());
+        assertEquals(result.getErrors().size(), 1);
+        assertEquals(((Map<String, Object>) result.getData()).get("failing"), null);
+    }
+}
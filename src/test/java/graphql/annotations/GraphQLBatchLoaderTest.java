@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import lombok.SneakyThrows;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class GraphQLBatchLoaderTest {
+
+    private static final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    public static class CustomerLoader implements BatchLoader<Integer, Customer> {
+        @Override
+        public List<Customer> load(List<Integer> keys) {
+            batches.add(keys);
+            return keys.stream().map(id -> id < 0 ? null : new Customer(id)).collect(Collectors.toList());
+        }
+    }
+
+    public static class FailingLoader implements BatchLoader<Integer, Customer> {
+        @Override
+        public List<Customer> load(List<Integer> keys) {
+            throw new IllegalStateException("unavailable");
+        }
+    }
+
+    public static class Customer {
+        private final int id;
+
+        public Customer(int id) {
+            this.id = id;
+        }
+
+        @GraphQLField
+        public String name() {
+            return "customer " + id;
+        }
+
+        @GraphQLField
+        public CompletableFuture<Customer> referrer(@GraphQLBatchLoader(CustomerLoader.class) DataLoader<Integer, Customer> customers) {
+            return customers.load(id + 100);
+        }
+    }
+
+    public static class Order {
+        private final int customerId;
+
+        public Order(int customerId) {
+            this.customerId = customerId;
+        }
+
+        @GraphQLField
+        public CompletableFuture<Customer> customer(@GraphQLBatchLoader(CustomerLoader.class) DataLoader<Integer, Customer> customers) {
+            return customers.load(customerId);
+        }
+
+        @GraphQLField
+        public CompletableFuture<Customer> delayed(@GraphQLBatchLoader(CustomerLoader.class) DataLoader<Integer, Customer> customers) {
+            // the key is loaded after the fields of the level have been fetched
+            return CompletableFuture.supplyAsync(() -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                return customerId;
+            }).thenCompose(customers::load);
+        }
+
+        @GraphQLField
+        public CompletableFuture<Customer> failing(@GraphQLBatchLoader(FailingLoader.class) DataLoader<Integer, Customer> customers) {
+            return customers.load(customerId);
+        }
+    }
+
+    public static class Query {
+        @GraphQLField
+        public List<Order> orders() {
+            return Arrays.asList(new Order(1), new Order(2), new Order(1), new Order(-1));
+        }
+    }
+
+    @SneakyThrows
+    private GraphQLSchema schema() {
+        return newSchema().query(GraphQLAnnotations.object(Query.class)).build();
+    }
+
+    private List<Object> customerNames(ExecutionResult result) {
+        List<Map<String, Map<String, Object>>> orders = (List<Map<String, Map<String, Object>>>) ((Map<String, Object>) result.getData()).get("orders");
+        return orders.stream().map(order -> order.get("customer") == null ? null : order.get("customer").get("name")).collect(Collectors.toList());
+    }
+
+    @Test @SneakyThrows
+    public void fieldType() {
+        assertEquals(GraphQLAnnotations.object(Customer.class).getFieldDefinition("name").getType(), GraphQLString);
+        assertEquals(GraphQLAnnotations.object(Order.class).getFieldDefinition("customer").getType().getName(), "Customer");
+        assertTrue(GraphQLAnnotations.object(Order.class).getFieldDefinition("customer").getArguments().isEmpty());
+    }
+
+    @Test
+    public void batchedPerLevel() {
+        batches.clear();
+        ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy())
+                .execute("{orders {customer {name referrer {name}} again: customer {name}}}", new Query());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(customerNames(result), Arrays.asList("customer 1", "customer 2", "customer 1", null));
+        assertEquals(batches, Arrays.asList(Arrays.asList(1, 2, -1), Arrays.asList(101, 102)));
+    }
+
+    @Test
+    public void batchedConcurrently() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            batches.clear();
+            ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy(executor, true))
+                    .execute("{orders {customer {name referrer {name}} again: customer {name}}}", new Query());
+            assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+            assertEquals(customerNames(result), Arrays.asList("customer 1", "customer 2", "customer 1", null));
+            assertEquals(batches.size(), 2);
+            assertEquals(new HashSet<>(batches.get(0)), new HashSet<>(Arrays.asList(1, 2, -1)));
+            assertEquals(new HashSet<>(batches.get(1)), new HashSet<>(Arrays.asList(101, 102)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void loadedFromContinuation() {
+        ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy()).execute("{orders {customer: delayed {name}}}", new Query());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(customerNames(result), Arrays.asList("customer 1", "customer 2", "customer 1", null));
+    }
+
+    @Test
+    public void unbatched() {
+        batches.clear();
+        ExecutionResult result = new GraphQL(schema()).execute("{orders {customer {name}}}", new Query());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(customerNames(result), Arrays.asList("customer 1", "customer 2", "customer 1", null));
+        assertEquals(batches.size(), 4);
+    }
+
+    @Test
+    public void failingLoader() {
+        ExecutionResult result = new GraphQL(schema(), new EnhancedExecutionStrategy()).execute("{orders {failing {name}}}", new Query());
+        assertEquals(result.getErrors().size(), 4);
+        List<Map<String, Object>> orders = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get("orders");
+        assertEquals(orders.get(0).get("failing"), null);
+    }
+}
@@ -17,6 +17,7 @@ package graphql.annotations;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.relay.PageInfo;
+import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLSchema;
@@ -24,10 +25,16 @@ import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.testng.annotations.Test;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static graphql.schema.GraphQLSchema.newSchema;
@@ -113,6 +120,355 @@ public class GraphQLConnectionTest {
         testResult("objStream", result);
     }
 
+    public static class TestStreamPages {
+        private final int size;
+        private int consumed;
+
+        public TestStreamPages(int size) {
+            this.size = size;
+        }
+
+        @GraphQLField @GraphQLConnection
+        public Stream<Obj> getObjs() {
+            return Stream.iterate(1, i -> i + 1).limit(size).peek(i -> consumed++).map(i -> new Obj(i.toString(), "val" + i));
+        }
+    }
+
+    @SneakyThrows
+    private Map<String, Object> streamPage(TestStreamPages source, String arguments) {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestStreamPages.class)).build();
+        ExecutionResult result = new GraphQL(schema).execute("{ objs" + (arguments.isEmpty() ? "" : "(" + arguments + ")") + " { edges { cursor node { id } } " +
+                "pageInfo { hasPreviousPage hasNextPage startCursor endCursor } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        return (Map<String, Object>) ((Map<String, Object>) result.getData()).get("objs");
+    }
+
+    private List<String> ids(Map<String, Object> page) {
+        return ((List<Map<String, Map<String, Object>>>) page.get("edges")).stream().
+                map(edge -> (String) edge.get("node").get("id")).collect(Collectors.toList());
+    }
+
+    @Test @SneakyThrows
+    public void streamFirstShortCircuits() {
+        TestStreamPages source = new TestStreamPages(Integer.MAX_VALUE);
+        Map<String, Object> page = streamPage(source, "first: 2");
+
+        assertEquals(ids(page), Arrays.asList("1", "2"));
+        assertEquals(source.consumed, 3);
+        Map<String, Object> pageInfo = (Map<String, Object>) page.get("pageInfo");
+        assertEquals(pageInfo.get("hasNextPage"), true);
+        assertEquals(pageInfo.get("hasPreviousPage"), false);
+
+        String endCursor = (String) pageInfo.get("endCursor");
+        assertEquals(ids(streamPage(new TestStreamPages(Integer.MAX_VALUE), "first: 2, after: \"" + endCursor + "\"")),
+                Arrays.asList("3", "4"));
+    }
+
+    @Test @SneakyThrows
+    public void streamLast() {
+        Map<String, Object> page = streamPage(new TestStreamPages(5), "last: 2");
+        assertEquals(ids(page), Arrays.asList("4", "5"));
+        Map<String, Object> pageInfo = (Map<String, Object>) page.get("pageInfo");
+        assertEquals(pageInfo.get("hasNextPage"), false);
+        assertEquals(pageInfo.get("hasPreviousPage"), true);
+
+        String startCursor = (String) pageInfo.get("startCursor");
+        assertEquals(ids(streamPage(new TestStreamPages(5), "before: \"" + startCursor + "\"")), Arrays.asList("1", "2", "3"));
+        assertEquals(ids(streamPage(new TestStreamPages(5), "last: 7")), Arrays.asList("1", "2", "3", "4", "5"));
+        assertEquals(ids(streamPage(new TestStreamPages(5), "first: 4, last: 2")), Arrays.asList("3", "4"));
+        assertEquals(ids(streamPage(new TestStreamPages(5), "")), Arrays.asList("1", "2", "3", "4", "5"));
+    }
+
+    @Test @SneakyThrows
+    public void streamHugePage() {
+        // buffers grow with the stream, not with the requested page size
+        assertEquals(ids(streamPage(new TestStreamPages(2), "first: " + Integer.MAX_VALUE)), Arrays.asList("1", "2"));
+        assertEquals(ids(streamPage(new TestStreamPages(2), "last: " + Integer.MAX_VALUE)), Arrays.asList("1", "2"));
+        assertEquals(ids(streamPage(new TestStreamPages(2), "first: " + Integer.MAX_VALUE + ", last: " + Integer.MAX_VALUE)),
+                Arrays.asList("1", "2"));
+    }
+
+    public static class CountingCodec implements CursorCodec {
+        private static final AtomicInteger encoded = new AtomicInteger();
+
+        @Override
+        public String encode(int offset) {
+            encoded.incrementAndGet();
+            return OffsetCursorCodec.INSTANCE.encode(offset);
+        }
+
+        @Override
+        public int decode(String cursor) {
+            return OffsetCursorCodec.INSTANCE.decode(cursor);
+        }
+    }
+
+    public static class CountingStreamConnection extends StreamConnection {
+        public CountingStreamConnection(Stream<?> stream) {
+            super(stream, new CountingCodec());
+        }
+    }
+
+    public static class TestCountingStream {
+        @GraphQLField @GraphQLConnection(connection = CountingStreamConnection.class)
+        public Stream<Obj> getObjs() {
+            return Stream.of(new Obj("1", "a"), new Obj("2", "b"), new Obj("3", "c"));
+        }
+    }
+
+    @Test @SneakyThrows
+    public void streamCursorsEncodedOnDemand() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestCountingStream.class)).build();
+
+        CountingCodec.encoded.set(0);
+        ExecutionResult result = new GraphQL(schema).execute("{ objs(first: 2) { edges { node { id } } } }", new TestCountingStream());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(CountingCodec.encoded.get(), 0);
+
+        result = new GraphQL(schema).execute("{ objs(first: 2) { pageInfo { endCursor } } }", new TestCountingStream());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(CountingCodec.encoded.get(), 1);
+    }
+
+    public static class LargeList extends AbstractList<Obj> implements RandomAccess {
+        private int reads;
+
+        @Override
+        public Obj get(int index) {
+            reads++;
+            return new Obj(Integer.toString(index + 1), "val");
+        }
+
+        @Override
+        public int size() {
+            return 1000000;
+        }
+    }
+
+    @AllArgsConstructor
+    public static class TestListPages {
+        private final List<Obj> list;
+
+        @GraphQLField @GraphQLConnection
+        public List<Obj> getObjs() {
+            return list;
+        }
+    }
+
+    @SneakyThrows
+    private Map<String, Object> listPage(List<Obj> list, String arguments) {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestListPages.class)).build();
+        ExecutionResult result = new GraphQL(schema).execute("{ objs" + (arguments.isEmpty() ? "" : "(" + arguments + ")") + " { edges { cursor node { id } } " +
+                "pageInfo { hasPreviousPage hasNextPage startCursor endCursor } } }", new TestListPages(list));
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        return (Map<String, Object>) ((Map<String, Object>) result.getData()).get("objs");
+    }
+
+    @Test @SneakyThrows
+    public void listPagesReadOnlyThePage() {
+        LargeList list = new LargeList();
+        Map<String, Object> page = listPage(list, "first: 2");
+        assertEquals(ids(page), Arrays.asList("1", "2"));
+        assertTrue(list.reads <= 6, Integer.toString(list.reads));
+
+        String endCursor = (String) ((Map<String, Object>) page.get("pageInfo")).get("endCursor");
+        page = listPage(list, "first: 2, after: \"" + endCursor + "\"");
+        assertEquals(ids(page), Arrays.asList("3", "4"));
+        Map<String, Object> pageInfo = (Map<String, Object>) page.get("pageInfo");
+        assertEquals(pageInfo.get("hasPreviousPage"), false);
+        assertEquals(pageInfo.get("hasNextPage"), true);
+
+        page = listPage(list, "last: 1");
+        assertEquals(ids(page), Collections.singletonList("1000000"));
+        assertTrue(list.reads <= 20, Integer.toString(list.reads));
+    }
+
+    @Test @SneakyThrows
+    public void listPages() {
+        List<Obj> list = new LinkedList<>();
+        for (int i = 1; i <= 5; i++) {
+            list.add(new Obj(Integer.toString(i), "val"));
+        }
+        Map<String, Object> page = listPage(list, "last: 2");
+        assertEquals(ids(page), Arrays.asList("4", "5"));
+        Map<String, Object> pageInfo = (Map<String, Object>) page.get("pageInfo");
+        assertEquals(pageInfo.get("hasPreviousPage"), true);
+        assertEquals(pageInfo.get("hasNextPage"), false);
+
+        String startCursor = (String) pageInfo.get("startCursor");
+        assertEquals(ids(listPage(list, "before: \"" + startCursor + "\"")), Arrays.asList("1", "2", "3"));
+        assertEquals(ids(listPage(list, "first: 4, last: 2")), Arrays.asList("3", "4"));
+        assertEquals(ids(listPage(list, "first: 0")), Collections.emptyList());
+        assertEquals(ids(listPage(list, "")), Arrays.asList("1", "2", "3", "4", "5"));
+    }
+
+    public static class TestPageable {
+        private static final List<Obj> table = Stream.iterate(1, i -> i + 1).limit(10).
+                map(i -> new Obj(i.toString(), i % 2 == 0 ? "even" : "odd")).collect(Collectors.toList());
+
+        private PageRequest request;
+
+        @GraphQLField @GraphQLConnection
+        public PageResult<Obj> objs(PageRequest request, String val) {
+            this.request = request;
+            List<Obj> rows = table.stream().filter(obj -> val == null || obj.val.equals(val)).collect(Collectors.toList());
+            int offset = Math.min(request.getAfterOffset(), rows.size());
+            List<Obj> page = rows.subList(offset, Math.min(rows.size(), offset + request.getLimit()));
+            boolean hasNextPage = request.getFirst() != null && page.size() > request.getFirst();
+            return PageResult.offset(hasNextPage ? page.subList(0, request.getFirst()) : page, offset, offset > 0, hasNextPage);
+        }
+
+        @GraphQLField @GraphQLConnection
+        public PageResult<Obj> keyed(PageRequest request) {
+            int after = request.getAfter() == null ? 0 : Integer.parseInt(request.getAfter());
+            List<Obj> page = table.stream().filter(obj -> Integer.parseInt(obj.id) > after).limit(request.getFirst()).
+                    collect(Collectors.toList());
+            return PageResult.keyset(page, obj -> obj.id, after > 0, Integer.parseInt(page.get(page.size() - 1).id) < table.size());
+        }
+
+        @GraphQLField @GraphQLConnection(connection = CodecPageResultConnection.class, codec = PrefixCodec.class)
+        public PageResult<Obj> prefixed(PageRequest request) {
+            this.request = request;
+            int offset = request.getAfterOffset();
+            return PageResult.offset(table.subList(offset, offset + request.getFirst()), offset, offset > 0, true);
+        }
+
+        @GraphQLField
+        public PageResult<Obj> plain() {
+            return PageResult.offset(table.subList(0, 2), 0, false, true);
+        }
+    }
+
+    @Test @SneakyThrows
+    public void offsetPageResult() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestPageable.class)).build();
+        TestPageable source = new TestPageable();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ objs(first: 2, val: \"even\") { edges { node { id } } " +
+                "pageInfo { hasPreviousPage hasNextPage endCursor } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> objs = (Map<String, Object>) ((Map<String, Object>) result.getData()).get("objs");
+        assertEquals(ids(objs), Arrays.asList("2", "4"));
+        assertEquals(source.request.getLimit(), 3);
+        Map<String, Object> pageInfo = (Map<String, Object>) objs.get("pageInfo");
+        assertEquals(pageInfo.get("hasPreviousPage"), false);
+        assertEquals(pageInfo.get("hasNextPage"), true);
+
+        result = new GraphQL(schema).execute("{ objs(first: 2, val: \"even\", after: \"" + pageInfo.get("endCursor") + "\") " +
+                "{ edges { node { id } } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(source.request.getAfterOffset(), 2);
+        assertEquals(ids((Map<String, Object>) ((Map<String, Object>) result.getData()).get("objs")), Arrays.asList("6", "8"));
+    }
+
+    @Test @SneakyThrows
+    public void pageResultBefore() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestPageable.class)).build();
+        TestPageable source = new TestPageable();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ objs(after: \"" + OffsetCursorCodec.INSTANCE.encode(2) + "\", before: \"" +
+                OffsetCursorCodec.INSTANCE.encode(5) + "\") { edges { node { id } } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(source.request.getLimit(), 2);
+        assertEquals(ids((Map<String, Object>) ((Map<String, Object>) result.getData()).get("objs")), Arrays.asList("3", "4"));
+    }
+
+    public static class PrefixCodec implements CursorCodec {
+        @Override
+        public String encode(int offset) {
+            return "@" + offset;
+        }
+
+        @Override
+        public int decode(String cursor) {
+            if (!cursor.startsWith("@")) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+            return Integer.parseInt(cursor.substring(1));
+        }
+    }
+
+    public static class CodecPageResultConnection extends PageResultConnection {
+        public CodecPageResultConnection(PageResult<?> result, CursorCodec codec) {
+            super(result, codec);
+        }
+    }
+
+    @Test @SneakyThrows
+    public void pageResultCursorCodec() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestPageable.class)).build();
+        TestPageable source = new TestPageable();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ prefixed(first: 2) { pageInfo { endCursor } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> pageInfo = (Map<String, Object>) ((Map<String, Object>) ((Map<String, Object>) result.getData()).get("prefixed")).get("pageInfo");
+        assertEquals(pageInfo.get("endCursor"), "@2");
+
+        result = new GraphQL(schema).execute("{ prefixed(first: 2, after: \"@2\") { edges { node { id } } } }", source);
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(source.request.getAfterOffset(), 2);
+        assertEquals(ids((Map<String, Object>) ((Map<String, Object>) result.getData()).get("prefixed")), Arrays.asList("3", "4"));
+    }
+
+    @Test @SneakyThrows
+    public void keysetPageResult() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestPageable.class)).build();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ keyed(first: 3, after: \"4\") { edges { cursor node { id } } " +
+                "pageInfo { hasPreviousPage hasNextPage } } }", new TestPageable());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> keyed = (Map<String, Object>) ((Map<String, Object>) result.getData()).get("keyed");
+        assertEquals(ids(keyed), Arrays.asList("5", "6", "7"));
+        assertEquals(((List<Map<String, Object>>) keyed.get("edges")).get(2).get("cursor"), "7");
+        assertEquals(keyed.get("pageInfo"), new HashMap<String, Object>() {{
+            put("hasPreviousPage", true);
+            put("hasNextPage", true);
+        }});
+    }
+
+    @Test @SneakyThrows
+    public void plainPageResult() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestPageable.class)).build();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ plain { id } }", new TestPageable());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(((Map<String, Object>) result.getData()).get("plain").toString(), "[{id=1}, {id=2}]");
+    }
+
+    public static class ConnectionFetcher implements DataFetcher {
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            assertTrue(environment.getArguments().isEmpty());
+            return new ListConnection(Arrays.asList(new Obj("1", "test"), new Obj("2", "hello")));
+        }
+    }
+
+    public static class UnusedConnection implements Connection {
+        public UnusedConnection(Object o) {
+            throw new AssertionError("data is a connection already");
+        }
+
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            return null;
+        }
+    }
+
+    public static class TestFetchedConnection {
+        @GraphQLField @GraphQLConnection(connection = UnusedConnection.class) @GraphQLDataFetcher(ConnectionFetcher.class)
+        public List<Obj> objs;
+    }
+
+    @Test @SneakyThrows
+    public void fetchedConnection() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(TestFetchedConnection.class)).build();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ objs(first: 1) { edges { cursor node { id, val } } } }",
+                new TestFetchedConnection());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+
+        testResult("objs", result);
+    }
 
     public static class CustomConnection implements Connection {
 
@@ -21,11 +21,18 @@ import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+import static graphql.Scalars.GraphQLString;
 import static graphql.schema.GraphQLSchema.newSchema;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class GraphQLInterfaceTest {
@@ -133,4 +140,168 @@ public class GraphQLInterfaceTest {
         assertEquals(((Map<String, Map<String, String>>)result.getData()).get("union").get("value"), "a");
     }
 
+
+    @GraphQLUnion(possibleTypes = {TestObject1.class, TestObject2.class})
+    interface TestHierarchyUnion extends BaseTestIface {
+    }
+
+    public static class TestObject2 extends TestObject1 implements TestHierarchyUnion {
+        @Override
+        public String value() {
+            return "b";
+        }
+    }
+
+    @AllArgsConstructor
+    public static class HierarchyUnionQuery {
+        @GraphQLField public TestHierarchyUnion union;
+    }
+
+    @Test @SneakyThrows
+    public void queryUnionMostSpecific() {
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(HierarchyUnionQuery.class)).build();
+
+        ExecutionResult result = new GraphQL(schema).execute("{ union {  ... on TestObject2 { value }  } }", new HierarchyUnionQuery(new TestObject2()));
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(((Map<String, Map<String, String>>)result.getData()).get("union").get("value"), "b");
+    }
+
+    public interface Shape {
+        @GraphQLField
+        String name();
+    }
+
+    public static class Circle implements Shape {
+        @GraphQLField
+        public int radius = 1;
+
+        @Override
+        public String name() {
+            return "circle";
+        }
+    }
+
+    public static class Square implements Shape {
+        @GraphQLField
+        public int side = 2;
+
+        @Override
+        public String name() {
+            return "square";
+        }
+    }
+
+    public static class ShapeQuery {
+        @GraphQLField
+        public List<Shape> shapes() {
+            return Arrays.asList(new Circle(), new Square(), new Square() {});
+        }
+    }
+
+    @Test @SneakyThrows
+    public void classTypeResolver() {
+        GraphQLInterfaceType iface = (GraphQLInterfaceType) GraphQLAnnotations.iface(Shape.class);
+        assertTrue(iface.getTypeResolver() instanceof ClassTypeResolver);
+        assertEquals(GraphQLAnnotations.object(Circle.class).getInterfaces().get(0), iface);
+
+        GraphQLSchema schema = newSchema().query(GraphQLAnnotations.object(ShapeQuery.class))
+                .build(new HashSet<>(Arrays.asList(GraphQLAnnotations.object(Circle.class), GraphQLAnnotations.object(Square.class))));
+        ExecutionResult result = new GraphQL(schema).execute("{ shapes { name ... on Circle { radius } ... on Square { side } } }", new ShapeQuery());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        List<Map<String, Object>> shapes = ((Map<String, List<Map<String, Object>>>) result.getData()).get("shapes");
+        assertEquals(shapes.get(0).get("radius"), 1);
+        assertEquals(shapes.get(1).get("side"), 2);
+        assertEquals(shapes.get(2).get("name"), "square");
+        assertEquals(shapes.get(2).get("side"), 2);
+    }
+
+    public static class Hexagon extends Square {
+    }
+
+    @Test @SneakyThrows
+    public void classTypeResolverUsesBuiltTypes() {
+        TypeRegistry registry = new TypeRegistry();
+        GraphQLInterfaceType iface = (GraphQLInterfaceType) registry.iface(Shape.class);
+        GraphQLObjectType square = registry.object(Square.class);
+
+        // neither built nor resolved to types that aren't in the schema
+        assertSame(iface.getTypeResolver().getType(new Hexagon()), square);
+        assertNull(registry.typeCache.get(Hexagon.class));
+        assertNull(iface.getTypeResolver().getType(new Circle()));
+        assertNull(registry.typeCache.get(Circle.class));
+
+        registry.register(UUID.class, (aClass, annotatedType) -> GraphQLString);
+        assertSame(iface.getTypeResolver().getType(new Square()), square);
+    }
+
+    public interface Animal {
+        @GraphQLField
+        String name();
+
+        @GraphQLField
+        Dog bestFriend();
+    }
+
+    public static class Dog implements Animal {
+        @Override
+        public String name() {
+            return "dog";
+        }
+
+        @Override
+        public Dog bestFriend() {
+            return this;
+        }
+
+        @GraphQLField
+        public Cat cat() {
+            return new Cat();
+        }
+    }
+
+    public static class Cat implements Animal {
+        @Override
+        public String name() {
+            return "cat";
+        }
+
+        @Override
+        public Dog bestFriend() {
+            return new Dog();
+        }
+    }
+
+    public static class Zoo {
+        @GraphQLField
+        public List<Animal> animals() {
+            return Arrays.asList(new Dog(), new Cat());
+        }
+    }
+
+    @Test @SneakyThrows
+    public void buildsEachClassOnce() {
+        GraphQLObjectType zoo = GraphQLAnnotations.object(Zoo.class);
+        GraphQLInterfaceType animal = (GraphQLInterfaceType) GraphQLAnnotations.iface(Animal.class);
+        GraphQLObjectType dog = GraphQLAnnotations.object(Dog.class);
+        GraphQLObjectType cat = (GraphQLObjectType) dog.getFieldDefinition("cat").getType();
+        assertSame(GraphQLAnnotations.object(Zoo.class), zoo);
+        assertSame(((GraphQLList) zoo.getFieldDefinition("animals").getType()).getWrappedType(), animal);
+        assertSame(dog.getInterfaces().get(0), animal);
+        assertSame(cat.getInterfaces().get(0), animal);
+
+        // Cat built as a part of Dog refers to Dog, on its own it is built again with Dog embedded
+        GraphQLObjectType standaloneCat = GraphQLAnnotations.object(Cat.class);
+        assertNotSame(standaloneCat, cat);
+        assertSame(standaloneCat.getFieldDefinition("bestFriend").getType(), dog);
+        assertSame(standaloneCat.getInterfaces().get(0), animal);
+
+        GraphQLSchema schema = newSchema().query(zoo).build(new HashSet<>(Arrays.asList(dog, cat)));
+        assertSame(animal.getFieldDefinition("bestFriend").getType(), dog);
+        ExecutionResult result = new GraphQL(schema).execute("{ animals { name bestFriend { name } ... on Dog { cat { name } } } }", new Zoo());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        List<Map<String, Object>> animals = ((Map<String, List<Map<String, Object>>>) result.getData()).get("animals");
+        assertEquals(((Map<String, Object>) animals.get(0).get("cat")).get("name"), "cat");
+        assertEquals(((Map<String, Object>) animals.get(1).get("bestFriend")).get("name"), "dog");
+    }
+
 }
@@ -197,6 +197,30 @@ public class GraphQLObjectTest {
 
     }
 
+    public static class IfaceOverride implements Iface {
+        @Override
+        public String field() {
+            return "overridden";
+        }
+    }
+
+    public static class IfaceOverrideInherited extends IfaceOverride {
+        @Override
+        public String field() {
+            return "inherited";
+        }
+    }
+
+    @Test @SneakyThrows
+    public void overriddenInterfaceMethod() {
+        GraphQLObjectType object = GraphQLAnnotations.object(IfaceOverrideInherited.class);
+        assertEquals(object.getFieldDefinitions().size(), 1);
+
+        GraphQLSchema schema = newSchema().query(object).build();
+        ExecutionResult result = new GraphQL(schema).execute("{field}", new IfaceOverrideInherited());
+        assertEquals(((Map<String, Object>) result.getData()).get("field"), "inherited");
+    }
+
     private static class TestAccessors {
         @GraphQLField
         public String getValue() {
@@ -315,6 +339,29 @@ public class GraphQLObjectTest {
         assertEquals(((Map<String, String>)result.getData()).get("field1"), "test");
     }
 
+    @Test @SneakyThrows
+    public void queryPrivateField() {
+        GraphQLObjectType object = GraphQLAnnotations.object(TestObject.class);
+        GraphQLSchema schema = newSchema().query(object).build();
+
+        ExecutionResult result = new GraphQL(schema).execute("{publicTest, privateTest}", new TestObject());
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(((Map<String, String>)result.getData()).get("publicTest"), "public");
+        assertEquals(((Map<String, String>)result.getData()).get("privateTest"), "private");
+    }
+
+    @Test @SneakyThrows
+    public void queryFieldFromMap() {
+        GraphQLObjectType object = GraphQLAnnotations.object(TestField.class);
+        GraphQLSchema schema = newSchema().query(object).build();
+
+        Map<String, Object> source = new HashMap<>();
+        source.put("field", "map");
+        ExecutionResult result = new GraphQL(schema).execute("{field1}", source);
+        assertTrue(result.getErrors().isEmpty());
+        assertEquals(((Map<String, String>)result.getData()).get("field1"), "map");
+    }
+
     @Test @SneakyThrows
     public void defaultArg() {
         GraphQLObjectType object = GraphQLAnnotations.object(TestObject.class);
@@ -368,6 +415,26 @@ public class GraphQLObjectTest {
         assertTrue(result.getErrors().isEmpty());
     }
 
+    @Test @SneakyThrows
+    public void cachedTypes() {
+        assertSame(GraphQLAnnotations.object(TestObject.class), GraphQLAnnotations.object(TestObject.class));
+
+        GraphQLObjectType class1 = GraphQLAnnotations.object(Class1.class);
+        assertSame(GraphQLAnnotations.object(Class1.class), class1);
+
+        // Class2 built as a part of Class1 refers to Class1 and can't be used on its own
+        GraphQLObjectType class2 = GraphQLAnnotations.object(Class2.class);
+        assertNotSame(class2, class1.getFieldDefinition("class2").getType());
+        assertSame(class2.getFieldDefinition("class1").getType(), class1);
+        assertSame(GraphQLAnnotations.object(Class2.class), class2);
+        GraphQLSchema schema = newSchema().query(class2).build();
+        Class2 source = new Class2();
+        source.class1 = new Class1();
+        source.class1.value = "bye";
+        ExecutionResult result = new GraphQL(schema).execute("{ class1 { value } }", source);
+        assertTrue(result.getErrors().isEmpty());
+    }
+
     private static class TestCustomType {
         @GraphQLField
         public UUID id() {
@@ -432,6 +499,74 @@ public class GraphQLObjectTest {
         GraphQLInputObjectType inputObjectType = GraphQLAnnotations.inputObject(object);
         assertEquals(inputObjectType.getFields().size(), object.getFieldDefinitions().size());
     }
+    @Test @SneakyThrows
+    public void inputObjectCached() {
+        GraphQLObjectType object = GraphQLAnnotations.object(TestObjectInput.class);
+        GraphQLInputObjectType argument = (GraphQLInputObjectType) object.getFieldDefinition("test").getArgument("arg").getType();
+        assertSame(GraphQLAnnotations.inputObject(GraphQLAnnotations.object(TestInputArgument.class)), argument);
+    }
+
+    public static class InputNode {
+        @GraphQLField
+        public String value;
+        @GraphQLField
+        public List<InputNode> children;
+    }
+
+    @Test @SneakyThrows
+    public void cyclicInputObject() {
+        GraphQLObjectType object = GraphQLAnnotations.object(InputNode.class);
+        // resolves the reference to InputNode in place
+        newSchema().query(object).build();
+        assertSame(((GraphQLList) object.getFieldDefinition("children").getType()).getWrappedType(), object);
+
+        GraphQLInputObjectType inputObject = GraphQLAnnotations.inputObject(object);
+        assertSame(((GraphQLList) inputObject.getField("children").getType()).getWrappedType(), inputObject);
+        assertSame(GraphQLAnnotations.inputObject(object), inputObject);
+
+        GraphQLObjectType query = GraphQLObjectType.newObject().name("query").field(newFieldDefinition().name("count").type(Scalars.GraphQLInt).
+                argument(GraphQLArgument.newArgument().type(inputObject).name("input").build()).dataFetcher(environment -> {
+                    Map<String, Object> input = environment.getArgument("input");
+                    List<Map<String, Object>> children = (List<Map<String, Object>>) input.get("children");
+                    return ((List<?>) children.get(0).get("children")).size();
+                }).build()).build();
+        ExecutionResult result = new GraphQL(newSchema().query(query).build())
+                .execute("{count(input: {value: \"a\", children: [{children: [{value: \"b\"}, {}]}]})}");
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(((Map<String, Object>) result.getData()).get("count"), 2);
+    }
+
+    public static class InputParent {
+        @GraphQLField
+        public String value;
+        @GraphQLField
+        public InputParent parent;
+
+        public InputParent(HashMap<String, Object> args) {
+            value = (String) args.get("value");
+            parent = args.get("parent") == null ? null : new InputParent((HashMap<String, Object>) args.get("parent"));
+        }
+    }
+
+    public static class InputParentQuery {
+        @GraphQLField
+        public String find(@GraphQLName("filter") InputParent filter) {
+            return filter.parent == null ? null : filter.parent.value;
+        }
+    }
+
+    @Test @SneakyThrows
+    public void selfReferencingArgument() {
+        GraphQLObjectType query = new TypeRegistry().object(InputParentQuery.class);
+        GraphQLInputObjectType filter = (GraphQLInputObjectType) query.getFieldDefinition("find").getArgument("filter").getType();
+        assertSame(filter.getField("parent").getType(), filter);
+
+        ExecutionResult result = new GraphQL(newSchema().query(query).build())
+                .execute("{find(filter: {value: \"child\", parent: {value: \"parent\"}})}", new InputParentQuery());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(((Map<String, Object>) result.getData()).get("find"), "parent");
+    }
+
     public static class UUIDTypeFunction implements TypeFunction {
         @Override
         public GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
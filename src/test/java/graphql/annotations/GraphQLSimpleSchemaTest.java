@@ -22,8 +22,12 @@ import lombok.Setter;
 import lombok.SneakyThrows;
 import org.testng.annotations.Test;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static graphql.schema.GraphQLSchema.newSchema;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 
 public class GraphQLSimpleSchemaTest {
 
@@ -76,5 +80,52 @@ public class GraphQLSimpleSchemaTest {
         String actual = result.getData().toString();
         assertEquals(actual, "{defaultUser2={name=Test Name}}");
     }
-}
 
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    public static class SingletonQuery {
+        private final int instance = instances.incrementAndGet();
+
+        @GraphQLField
+        @GraphQLInvokeDetached
+        public int instance() {
+            return instance;
+        }
+    }
+
+    public static class ContextQuery {
+        private final int instance = instances.incrementAndGet();
+
+        @GraphQLField
+        @GraphQLInvokeDetached
+        public int instance() {
+            return instance;
+        }
+    }
+
+    @Test @SneakyThrows
+    public void singletonInstanceProvider() {
+        SingletonQuery instance = new SingletonQuery();
+        GraphQLAnnotations.registerInstanceProvider(SingletonQuery.class, new SingletonInstanceProvider(instance));
+        GraphQLObjectType queryObject = GraphQLAnnotations.object(SingletonQuery.class);
+        GraphQL graphql = new GraphQL(newSchema().query(queryObject).build());
+
+        assertEquals(graphql.execute("{ instance }").getData().toString(), "{instance=" + instance.instance() + "}");
+        assertEquals(graphql.execute("{ instance }").getData().toString(), "{instance=" + instance.instance() + "}");
+    }
+
+    @Test @SneakyThrows
+    public void contextInstanceProvider() {
+        GraphQLAnnotations.registerInstanceProvider(ContextQuery.class, new ContextInstanceProvider(ContextQuery::new));
+        GraphQLObjectType queryObject = GraphQLAnnotations.object(ContextQuery.class);
+        GraphQL graphql = new GraphQL(newSchema().query(queryObject).build());
+
+        Object context = new Object();
+        ExecutionResult result = graphql.execute("{ a: instance b: instance }", context);
+        Map<String, Object> data = (Map<String, Object>) result.getData();
+        assertEquals(data.get("a"), data.get("b"));
+
+        ExecutionResult otherResult = graphql.execute("{ a: instance }", new Object());
+        assertNotEquals(((Map<String, Object>) otherResult.getData()).get("a"), data.get("a"));
+    }
+}
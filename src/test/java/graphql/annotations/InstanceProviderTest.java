@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.*;
+
+public class InstanceProviderTest {
+
+    private static class Pooled {
+        private final AtomicBoolean inUse = new AtomicBoolean();
+    }
+
+    @Test
+    public void pooledInstances() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        PooledInstanceProvider provider = new PooledInstanceProvider(() -> {
+            created.incrementAndGet();
+            return new Pooled();
+        }, 2);
+        AtomicBoolean shared = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tasks.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        Pooled instance = (Pooled) provider.getInstance(null);
+                        if (!instance.inUse.compareAndSet(false, true)) {
+                            shared.set(true);
+                        }
+                        instance.inUse.set(false);
+                        provider.release(instance);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(shared.get());
+        assertTrue(created.get() < 4000);
+
+        int before = created.get();
+        for (int i = 0; i < 3; i++) {
+            provider.getInstance(null);
+        }
+        assertTrue(created.get() >= before + 1, "at most two idle instances");
+    }
+
+    public static class Detached {
+        private static CompletableFuture<Boolean> pending;
+        private static CountDownLatch invoked;
+
+        private volatile boolean released;
+
+        @GraphQLField
+        @GraphQLInvokeDetached
+        public CompletableFuture<Boolean> releasedEarly() {
+            invoked.countDown();
+            return pending.thenApply(value -> released);
+        }
+    }
+
+    private static class DetachedProvider implements InstanceProvider {
+        private final List<Detached> released = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object getInstance(DataFetchingEnvironment environment) {
+            return new Detached();
+        }
+
+        @Override
+        public void release(Object instance) {
+            ((Detached) instance).released = true;
+            released.add((Detached) instance);
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void releasedOnCompletion() throws Exception {
+        TypeRegistry registry = new TypeRegistry();
+        DetachedProvider provider = new DetachedProvider();
+        registry.registerInstanceProvider(Detached.class, provider);
+        Detached.pending = new CompletableFuture<>();
+        Detached.invoked = new CountDownLatch(1);
+
+        GraphQLSchema schema = newSchema().query(registry.object(Detached.class)).build();
+        CompletableFuture<ExecutionResult> result = CompletableFuture.supplyAsync(() ->
+                new GraphQL(schema, new EnhancedExecutionStrategy()).execute("{releasedEarly}"));
+        Detached.invoked.await();
+        assertTrue(provider.released.isEmpty());
+        Detached.pending.complete(false);
+
+        assertTrue(result.get().getErrors().isEmpty(), result.get().getErrors().toString());
+        assertEquals(((Map<String, Object>) result.get().getData()).get("releasedEarly"), false);
+        assertEquals(provider.released.size(), 1);
+    }
+}
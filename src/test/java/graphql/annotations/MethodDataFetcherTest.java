@@ -17,9 +17,16 @@ package graphql.annotations;
 import graphql.schema.DataFetchingEnvironment;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
+import static graphql.Scalars.GraphQLInt;
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition;
+import static graphql.schema.GraphQLObjectType.newObject;
 import static org.testng.Assert.*;
 
 public class MethodDataFetcherTest {
@@ -38,4 +45,126 @@ public class MethodDataFetcherTest {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static class PrivateObject {
+        public int twice(int i) {
+            return i * 2;
+        }
+
+        public String concat(String a, DataFetchingEnvironment env, @GraphQLName("second") String b) {
+            return a + b;
+        }
+
+        public static String staticMethod() {
+            return "static";
+        }
+
+        public long widened(long l) {
+            return l;
+        }
+
+        public String error() {
+            throw new TestError();
+        }
+    }
+
+    private static class TestError extends Error {
+    }
+
+    @Test
+    public void privateClass() throws NoSuchMethodException {
+        MethodDataFetcher methodDataFetcher = new MethodDataFetcher(PrivateObject.class.getMethod("twice", int.class));
+        HashMap<String, Object> args = new HashMap<>();
+        args.put("i", 21);
+        Object result = methodDataFetcher.get(new DataFetchingEnvironment(new PrivateObject(), args, null, new ArrayList<>(), null, null, null));
+        assertEquals(result, 42);
+    }
+
+    @Test
+    public void boundToMethodHandle() throws NoSuchMethodException {
+        assertTrue(MethodInvoker.of(PrivateObject.class.getMethod("twice", int.class)) instanceof MethodInvoker.HandleInvoker);
+    }
+
+    @Test
+    public void invocationExceptions() throws Exception {
+        MethodInvoker invoker = MethodInvoker.of(getClass().getMethod("method"));
+        try {
+            invoker.invoke(this, new Object[0]);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof TestException);
+        }
+        try {
+            MethodInvoker.of(PrivateObject.class.getMethod("error")).invoke(new PrivateObject(), new Object[0]);
+            fail();
+        } catch (TestError e) {
+            // rethrown as is
+        }
+        try {
+            MethodInvoker.of(PrivateObject.class.getMethod("twice", int.class)).invoke(new PrivateObject(), new Object[]{"21"});
+            fail();
+        } catch (IllegalArgumentException e) {
+            // reported by reflection
+        }
+    }
+
+    @Test
+    public void widenedArguments() throws Exception {
+        MethodInvoker invoker = MethodInvoker.of(PrivateObject.class.getMethod("widened", long.class));
+        assertEquals(invoker.invoke(new PrivateObject(), new Object[]{21}), 21L);
+    }
+
+    @Test
+    public void staticMethod() throws NoSuchMethodException {
+        MethodDataFetcher methodDataFetcher = new MethodDataFetcher(PrivateObject.class.getMethod("staticMethod"));
+        Object result = methodDataFetcher.get(new DataFetchingEnvironment(null, new HashMap<>(), null, new ArrayList<>(), null, null, null));
+        assertEquals(result, "static");
+    }
+
+    @Test
+    public void argumentsBoundByName() throws NoSuchMethodException {
+        MethodDataFetcher methodDataFetcher = new MethodDataFetcher(PrivateObject.class.getMethod("concat", String.class, DataFetchingEnvironment.class, String.class));
+        LinkedHashMap<String, Object> args = new LinkedHashMap<>();
+        args.put("second", "b");
+        args.put("a", "a");
+        Object result = methodDataFetcher.get(new DataFetchingEnvironment(new PrivateObject(), args, null, new ArrayList<>(), null, null, null));
+        assertEquals(result, "ab");
+    }
+
+    public static class Point {
+        private final int x;
+
+        public Point(HashMap<String, Object> fields) {
+            x = (Integer) fields.get("x");
+        }
+    }
+
+    public static class PointObjects implements TypeFunction {
+        @Override
+        public graphql.schema.GraphQLType apply(Class<?> aClass, AnnotatedType annotatedType) {
+            if (aClass == Point.class) {
+                return newObject().name("Point").field(newFieldDefinition().name("x").type(GraphQLInt).build()).build();
+            }
+            return DefaultTypeFunction.instance.apply(aClass, annotatedType);
+        }
+    }
+
+    public static class Points {
+        @GraphQLType(PointObjects.class)
+        public int x(Point point) {
+            return point.x;
+        }
+    }
+
+    @Test
+    public void argumentsTypedByFieldTypeFunction() throws NoSuchMethodException {
+        TypeRegistry registry = new TypeRegistry().register(Point.class, (aClass, annotatedType) -> GraphQLString);
+        MethodDataFetcher methodDataFetcher = new MethodDataFetcher(Points.class.getMethod("x", Point.class), registry);
+        HashMap<String, Object> point = new HashMap<>();
+        point.put("x", 3);
+        HashMap<String, Object> args = new HashMap<>();
+        args.put("point", point);
+        Object result = methodDataFetcher.get(new DataFetchingEnvironment(new Points(), args, null, new ArrayList<>(), null, null, null));
+        assertEquals(result, 3);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.*;
+
+public class OffsetCursorCodecTest {
+
+    @Test
+    public void roundTrip() {
+        OffsetCursorCodec codec = new OffsetCursorCodec();
+        for (int offset : new int[]{0, 1, 127, 128, 16383, 16384, 1 << 21, Integer.MAX_VALUE}) {
+            String cursor = codec.encode(offset);
+            assertEquals(codec.decode(cursor), offset);
+            assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+        }
+        assertEquals(codec.encode(1).length(), 2);
+        assertEquals(codec.encode(Integer.MAX_VALUE).length(), 7);
+    }
+
+    @Test
+    public void signed() {
+        OffsetCursorCodec codec = new OffsetCursorCodec("secret".getBytes(StandardCharsets.UTF_8));
+        String cursor = codec.encode(42);
+        assertEquals(codec.decode(cursor), 42);
+
+        assertInvalid(codec, new OffsetCursorCodec().encode(42));
+        assertInvalid(codec, new OffsetCursorCodec("other".getBytes(StandardCharsets.UTF_8)).encode(42));
+        char[] tampered = cursor.toCharArray();
+        tampered[tampered.length - 1] = tampered[tampered.length - 1] == 'A' ? 'B' : 'A';
+        assertInvalid(codec, new String(tampered));
+    }
+
+    @Test
+    public void invalid() {
+        OffsetCursorCodec codec = new OffsetCursorCodec();
+        assertInvalid(codec, "");
+        assertInvalid(codec, "not a cursor");
+        // unterminated varint
+        assertInvalid(codec, "gA");
+        // non-minimal encoding of 1
+        assertInvalid(codec, "gQA");
+        // trailing bytes
+        assertInvalid(codec, codec.encode(1) + "AA");
+    }
+
+    private static void assertInvalid(CursorCodec codec, String cursor) {
+        try {
+            codec.decode(cursor);
+            fail(cursor + " should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
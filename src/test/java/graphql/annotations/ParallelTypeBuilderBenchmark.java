@@ -0,0 +1,114 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares building a generated model with {@link GraphQLAnnotations#object(Class, TypeRegistry)} and with
+ * {@link ParallelTypeBuilder}, each time with a new registry. Run with a JDK:
+ *
+ * <pre>
+ * java -cp ... graphql.annotations.ParallelTypeBuilderBenchmark [classes] [threads]
+ * </pre>
+ */
+public class ParallelTypeBuilderBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Class<?> query = model(classes);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        for (int i = 0; i < WARMUP; i++) {
+            new TypeRegistry().object(query);
+            new ParallelTypeBuilder(new TypeRegistry(), pool).build(query);
+        }
+        long[] sequential = new long[ROUNDS];
+        long[] parallel = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            new TypeRegistry().object(query);
+            sequential[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new ParallelTypeBuilder(new TypeRegistry(), pool).build(query);
+            parallel[i] = System.nanoTime() - start;
+        }
+        pool.shutdown();
+        System.out.printf("%d classes, %d threads: sequential %.1f ms, parallel %.1f ms (medians of %d rounds)%n",
+                classes, threads, median(sequential) / 1e6, median(parallel) / 1e6, ROUNDS);
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Compiles a tree of <code>classes</code> types, each referring to its two children, with a few scalar fields
+     * each, and a query referring to the root
+     */
+    private static Class<?> model(int classes) throws Exception {
+        Path sources = Files.createTempDirectory("model");
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < classes; i++) {
+            StringBuilder code = new StringBuilder("package model;\nimport graphql.annotations.*;\npublic class Type" + i + " {\n");
+            for (int f = 0; f < 10; f++) {
+                code.append("    @GraphQLField public String field").append(f).append(";\n");
+                code.append("    @GraphQLField public int method").append(f).append("(int argument) { return argument; }\n");
+            }
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < classes; child++) {
+                code.append("    @GraphQLField public Type").append(child).append(" child").append(child).append("() { return null; }\n");
+            }
+            code.append("}\n");
+            files.add(write(sources, "Type" + i, code.toString()));
+        }
+        files.add(write(sources, "Query", "package model;\nimport graphql.annotations.*;\npublic class Query {\n" +
+                                          "    @GraphQLField public Type0 root() { return null; }\n}\n"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments = new ArrayList<>(Arrays.asList("-d", sources.toString(), "-parameters",
+                "-classpath", System.getProperty("java.class.path")));
+        arguments.addAll(files);
+        if (compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])) != 0) {
+            throw new IllegalStateException("model doesn't compile");
+        }
+        ClassLoader classLoader = new URLClassLoader(new URL[]{sources.toUri().toURL()},
+                ParallelTypeBuilderBenchmark.class.getClassLoader());
+        return classLoader.loadClass("model.Query");
+    }
+
+    private static String write(Path directory, String name, String code) throws Exception {
+        File file = directory.resolve(name + ".java").toFile();
+        Files.write(file.toPath(), code.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+}
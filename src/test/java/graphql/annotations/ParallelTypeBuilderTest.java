@@ -0,0 +1,133 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.*;
+import graphql.schema.GraphQLType;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.*;
+
+public class ParallelTypeBuilderTest {
+
+    public static class ParallelLeaf {
+        @GraphQLField
+        public String value = "leaf";
+    }
+
+    public static class ParallelNode {
+        @GraphQLField
+        public ParallelLeaf leaf = new ParallelLeaf();
+
+        @GraphQLField
+        public ParallelNode parent() {
+            return null;
+        }
+
+        @GraphQLField
+        public List<ParallelChild> children() {
+            return Collections.singletonList(new ParallelChild());
+        }
+    }
+
+    public static class ParallelChild implements ParallelNamed {
+        @GraphQLField
+        public ParallelNode node() {
+            return null;
+        }
+
+        @Override
+        public String name() {
+            return "child";
+        }
+    }
+
+    public interface ParallelNamed {
+        @GraphQLField
+        String name();
+    }
+
+    public static class ParallelQuery {
+        @GraphQLField
+        public ParallelNode node() {
+            return new ParallelNode();
+        }
+
+        @GraphQLField
+        public Optional<ParallelLeaf> leaf(ParallelLeaf filter) {
+            return Optional.empty();
+        }
+    }
+
+    @Test
+    public void reachableTypes() {
+        TypeRegistry registry = new TypeRegistry();
+        Map<Class<?>, GraphQLType> types = new ParallelTypeBuilder(registry, new ForkJoinPool(4)).build(ParallelQuery.class);
+
+        assertEquals(types.keySet(), new HashSet<>(Arrays.asList(ParallelQuery.class, ParallelNode.class,
+                ParallelLeaf.class, ParallelChild.class, ParallelNamed.class)));
+        // dependencies come first
+        List<Class<?>> order = new ArrayList<>(types.keySet());
+        assertTrue(order.indexOf(ParallelLeaf.class) < order.indexOf(ParallelNode.class));
+        assertTrue(order.indexOf(ParallelNamed.class) < order.indexOf(ParallelChild.class));
+        assertEquals(order.get(order.size() - 1), ParallelQuery.class);
+
+        for (Map.Entry<Class<?>, GraphQLType> entry : types.entrySet()) {
+            assertSame(registry.typeCache.get(entry.getKey()), entry.getValue());
+        }
+        GraphQLObjectType child = (GraphQLObjectType) types.get(ParallelChild.class);
+        assertSame(child.getInterfaces().get(0), types.get(ParallelNamed.class));
+    }
+
+    @Test
+    public void query() throws Exception {
+        TypeRegistry registry = new TypeRegistry();
+        GraphQLObjectType query = (GraphQLObjectType) new ParallelTypeBuilder(registry, ForkJoinPool.commonPool())
+                .build(ParallelQuery.class).get(ParallelQuery.class);
+        assertSame(registry.object(ParallelQuery.class), query);
+
+        GraphQLSchema schema = newSchema().query(query).build();
+        ExecutionResult result = new GraphQL(schema).execute("{node {leaf {value} children {name node {parent {leaf {value}}}}}}", new ParallelQuery());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        Map<String, Object> node = (Map<String, Object>) ((Map<String, Object>) result.getData()).get("node");
+        assertEquals(((Map<String, Object>) node.get("leaf")).get("value"), "leaf");
+        assertEquals(((List<Map<String, Object>>) node.get("children")).get(0).get("name"), "child");
+    }
+
+    @Test
+    public void interfaceWithoutResolver() {
+        Map<Class<?>, GraphQLType> types = new ParallelTypeBuilder(new TypeRegistry(), ForkJoinPool.commonPool()).build(ParallelUnresolvedQuery.class);
+        assertTrue(types.get(ParallelUnresolved.class) instanceof GraphQLInterfaceType);
+    }
+
+    public interface ParallelUnresolved {
+        @GraphQLField
+        String name();
+    }
+
+    public static class ParallelUnresolvedQuery {
+        @GraphQLField
+        public ParallelUnresolved unresolved() {
+            return null;
+        }
+    }
+}
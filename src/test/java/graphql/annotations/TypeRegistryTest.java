@@ -0,0 +1,134 @@
+/**
+ * Copyright 2016 Yurii Rashkovskii
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ */
+package graphql.annotations;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static graphql.Scalars.GraphQLLong;
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLSchema.newSchema;
+import static org.testng.Assert.*;
+
+public class TypeRegistryTest {
+
+    public static class Amount {
+        private final long value;
+
+        public Amount(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value + " EUR";
+        }
+    }
+
+    public static class Account {
+        @GraphQLField
+        public Amount balance() {
+            return new Amount(42);
+        }
+
+        @GraphQLField
+        public Account parent() {
+            return null;
+        }
+    }
+
+    public static class Counter {
+        private int count;
+
+        @GraphQLField
+        @GraphQLInvokeDetached
+        public int count() {
+            return ++count;
+        }
+    }
+
+    private static TypeRegistry amountsAsString() {
+        return new TypeRegistry().register(Amount.class, (aClass, annotatedType) -> GraphQLString);
+    }
+
+    @Test
+    public void independentRegistries() throws Exception {
+        TypeRegistry strings = amountsAsString();
+        TypeRegistry longs = new TypeRegistry().register(Amount.class, (aClass, annotatedType) -> GraphQLLong);
+
+        GraphQLObjectType stringAccount = strings.object(Account.class);
+        GraphQLObjectType longAccount = longs.object(Account.class);
+
+        assertNotSame(stringAccount, longAccount);
+        assertEquals(stringAccount.getFieldDefinition("balance").getType(), GraphQLString);
+        assertEquals(longAccount.getFieldDefinition("balance").getType(), GraphQLLong);
+        assertSame(strings.object(Account.class), stringAccount);
+        assertNotSame(TypeRegistry.getDefault().typeCache.get(Account.class), stringAccount);
+    }
+
+    @Test
+    public void registrationDropsInputTypes() throws Exception {
+        TypeRegistry registry = amountsAsString();
+        GraphQLObjectType account = registry.object(Account.class);
+        GraphQLInputObjectType input = registry.inputObject(account);
+        assertSame(registry.inputObject(account), input);
+
+        registry.register(Amount.class, (aClass, annotatedType) -> GraphQLLong);
+        assertNotSame(registry.inputObject(account), input);
+        assertEquals(registry.inputObject(registry.object(Account.class)).getField("balance").getType(), GraphQLLong);
+    }
+
+    @Test
+    public void query() throws Exception {
+        GraphQLSchema schema = newSchema().query(amountsAsString().object(Account.class)).build();
+        ExecutionResult result = new GraphQL(schema).execute("{balance parent {balance}}", new Account());
+        assertTrue(result.getErrors().isEmpty(), result.getErrors().toString());
+        assertEquals(((Map<String, Object>) result.getData()).get("balance"), "42 EUR");
+    }
+
+    @Test
+    public void instanceProviders() throws Exception {
+        TypeRegistry registry = new TypeRegistry();
+        Counter counter = new Counter();
+        registry.registerInstanceProvider(Counter.class, new SingletonInstanceProvider(counter));
+
+        GraphQLSchema schema = newSchema().query(registry.object(Counter.class)).build();
+        new GraphQL(schema).execute("{count}");
+        new GraphQL(schema).execute("{count}");
+        assertEquals(counter.count, 2);
+    }
+
+    @Test
+    public void concurrentRegistries() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<GraphQLObjectType> build = () -> amountsAsString().object(Account.class);
+            Future<GraphQLObjectType> first = executor.submit(build);
+            Future<GraphQLObjectType> second = executor.submit(build);
+            assertNotSame(first.get(), second.get());
+            assertEquals(first.get().getFieldDefinition("balance").getType(), GraphQLString);
+            assertEquals(second.get().getFieldDefinition("balance").getType(), GraphQLString);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}